@@ -0,0 +1,95 @@
+package com.example.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+import com.google.cloud.PageImpl;
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Schema;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+import com.google.cloud.bigquery.TableResult;
+
+/*
+ * Grafos de entidades sintéticos compartidos por los benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final StandardSQLTypeName[] COLUMN_TYPES = {
+        StandardSQLTypeName.INT64, StandardSQLTypeName.STRING, StandardSQLTypeName.FLOAT64, StandardSQLTypeName.BOOL
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<UserEntity> users(int count, int queriesPerUser) {
+        List<UserEntity> users = new ArrayList<>(count);
+        long id = 1;
+        for (int i = 0; i < count; i++) {
+            UserEntity user = new UserEntity();
+            user.setId(id++);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret" + i);
+            user.setQueries(new ArrayList<>());
+            user.setComments(new ArrayList<>());
+            for (int j = 0; j < queriesPerUser; j++) {
+                QueryEntity query = new QueryEntity();
+                query.setId(id++);
+                query.setContent("SELECT * FROM dataset.table_" + j + " WHERE id = " + i);
+                query.setState(j % 2 == 0);
+                query.setUser(user);
+
+                CommentEntity comment = new CommentEntity();
+                comment.setId(id++);
+                comment.setContent("Comentario " + j + " del usuario " + i);
+                comment.setUser(user);
+                comment.setQuery(query);
+
+                query.setComments(new ArrayList<>(List.of(comment)));
+                user.getQueries().add(query);
+                user.getComments().add(comment);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    /*
+     * Resultado de una sola página con columnas INT64/STRING/FLOAT64/BOOL alternadas y
+     * un 5% de nulos, como los que devuelve BigQuery en formato texto.
+     */
+    static TableResult tableResult(int rows, int columns) {
+        List<Field> fields = new ArrayList<>(columns);
+        for (int c = 0; c < columns; c++) {
+            fields.add(Field.of("col_" + c, COLUMN_TYPES[c % COLUMN_TYPES.length]));
+        }
+        Schema schema = Schema.of(fields);
+
+        List<FieldValueList> values = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            List<FieldValue> row = new ArrayList<>(columns);
+            for (int c = 0; c < columns; c++) {
+                row.add(FieldValue.of(FieldValue.Attribute.PRIMITIVE, (r + c) % 20 == 0 ? null : value(fields.get(c), r)));
+            }
+            values.add(FieldValueList.of(row, schema.getFields()));
+        }
+        return new TableResult(schema, rows, new PageImpl<>(null, null, values));
+    }
+
+    private static String value(Field field, int row) {
+        switch (field.getType().getStandardType()) {
+            case INT64:
+                return Long.toString(1_000_000L + row);
+            case FLOAT64:
+                return Double.toString(row * 0.25);
+            case BOOL:
+                return row % 2 == 0 ? "true" : "false";
+            default:
+                return "valor " + field.getName() + " " + row;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.services.CredentialCache;
+import com.example.demo.services.PasswordHashingExecutor;
+
+/*
+ * Logins por segundo según el coste de BCrypt, con 8 peticiones concurrentes. "verify"
+ * es un login sin caché a través del pool de hash (su tamaño limita el throughput, que
+ * es la idea); "cached" es un login repetido dentro del TTL de la caché de credenciales.
+ * Sirve para elegir security.password.bcrypt-strength y hashing-threads:
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.args="LoginBenchmark -p hashingThreads=2,4"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class LoginBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    private int strength;
+
+    @Param({"2"})
+    private int hashingThreads;
+
+    private PasswordEncoder encoder;
+    private PasswordHashingExecutor executor;
+    private CredentialCache cache;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new DelegatingPasswordEncoder(SecurityConfig.PASSWORD_ENCODER_ID,
+                Map.of(SecurityConfig.PASSWORD_ENCODER_ID, new BCryptPasswordEncoder(strength)));
+        executor = new PasswordHashingExecutor(hashingThreads, 1_000);
+        cache = new CredentialCache(true, 10_000, 3_600);
+        stored = encoder.encode(PASSWORD);
+        cache.markVerified(EMAIL, PASSWORD, stored);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return executor.call(() -> encoder.matches(PASSWORD, stored));
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return cache.isVerified(EMAIL, PASSWORD, stored);
+    }
+}
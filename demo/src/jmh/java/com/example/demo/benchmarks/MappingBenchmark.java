@@ -0,0 +1,97 @@
+package com.example.demo.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.dto.QueryDetailDTO;
+import com.example.demo.dto.UserDetailDTO;
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+import com.example.demo.mappers.QueryMapper;
+import com.example.demo.mappers.QueryMapperImpl;
+import com.example.demo.mappers.UserMapper;
+import com.example.demo.mappers.UserMapperImpl;
+
+/*
+ * Compara el mapeo de listas con ModelMapper (TypeToken + reflexión) frente a los
+ * mappers generados por MapStruct, con los mismos grafos de entidades.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final Type QUERY_LIST = new TypeToken<List<QueryDTO>>() {}.getType();
+    private static final Type QUERY_DETAIL_LIST = new TypeToken<List<QueryDetailDTO>>() {}.getType();
+    private static final Type USER_DETAIL_LIST = new TypeToken<List<UserDetailDTO>>() {}.getType();
+
+    @Param({"10", "500"})
+    public int size;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final QueryMapper queryMapper = new QueryMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private List<UserEntity> users;
+    private List<QueryEntity> queries;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkData.users(size, 3);
+        queries = new ArrayList<>();
+        for (UserEntity user : users) {
+            queries.addAll(user.getQueries());
+        }
+    }
+
+    @Benchmark
+    public List<QueryDTO> queryListModelMapper() {
+        return modelMapper.map(queries, QUERY_LIST);
+    }
+
+    @Benchmark
+    public List<QueryDTO> queryListMapStruct() {
+        return queryMapper.toDTOs(queries);
+    }
+
+    @Benchmark
+    public List<QueryDetailDTO> queryDetailListModelMapper() {
+        return modelMapper.map(queries, QUERY_DETAIL_LIST);
+    }
+
+    @Benchmark
+    public List<QueryDetailDTO> queryDetailListMapStruct() {
+        return queryMapper.toDetailDTOs(queries);
+    }
+
+    @Benchmark
+    public List<UserDetailDTO> userDetailListModelMapper() {
+        return modelMapper.map(users, USER_DETAIL_LIST);
+    }
+
+    @Benchmark
+    public List<UserDetailDTO> userDetailListMapStruct() {
+        return userMapper.toDetailDTOs(users);
+    }
+}
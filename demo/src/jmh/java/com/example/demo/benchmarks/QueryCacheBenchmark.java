@@ -0,0 +1,52 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.services.QueryResultCache;
+
+/*
+ * Coste de un acierto y un fallo en la caché de resultados, incluida la normalización
+ * del SQL, con varios hilos concurrentes como en el servidor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class QueryCacheBenchmark {
+
+    private static final String CACHED_SQL = "SELECT name, COUNT(*)\n  FROM `dataset.events`\n WHERE kind = 'click  x'\n GROUP BY name;";
+    private static final String MISSING_SQL = "SELECT * FROM `dataset.other` WHERE id = 42";
+
+    private final QueryResultCache cache = new QueryResultCache(true, 64L * 1024 * 1024, 8L * 1024 * 1024, 3600);
+
+    @Setup
+    public void setUp() throws Exception {
+        cache.put(CACHED_SQL, "format=rows", new BigQueryResultDTO());
+    }
+
+    @Benchmark
+    public BigQueryResultDTO hit() {
+        return cache.get(CACHED_SQL, "format=rows", BigQueryResultDTO.class);
+    }
+
+    @Benchmark
+    public BigQueryResultDTO miss() {
+        return cache.get(MISSING_SQL, "format=rows", BigQueryResultDTO.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.ColumnarResultDTO;
+import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.services.QueryService;
+import com.google.cloud.bigquery.TableResult;
+
+/*
+ * Conversión de TableResult a las tres representaciones que sirve /api/queries/execute:
+ * filas como mapas, columnar y NDJSON en streaming, según el ancho y largo del resultado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultConversionBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    @Param({"4", "32"})
+    public int columns;
+
+    // Los métodos de conversión no usan los repositorios ni el cliente de BigQuery
+    private final QueryService queryService = new QueryService();
+
+    private TableResult tableResult;
+
+    @Setup
+    public void setUp() {
+        tableResult = BenchmarkData.tableResult(rows, columns);
+    }
+
+    @Benchmark
+    public BigQueryResultDTO convertToDTO() throws IllegalOperationException {
+        return queryService.convertToDTO(tableResult);
+    }
+
+    @Benchmark
+    public ColumnarResultDTO convertToColumnarDTO() {
+        return queryService.convertToColumnarDTO(tableResult);
+    }
+
+    @Benchmark
+    public void writeRows(Blackhole blackhole) throws IOException {
+        queryService.writeRows(tableResult, new BlackholeOutputStream(blackhole));
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.ColumnarResultDTO;
+import com.example.demo.exceptions.ApiError;
+import com.example.demo.services.QueryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Serialización JSON de las respuestas más frecuentes con un ObjectMapper configurado
+ * como el de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private BigQueryResultDTO rowResult;
+    private ColumnarResultDTO columnarResult;
+    private ApiError apiError;
+
+    @Setup
+    public void setUp() throws Exception {
+        QueryService queryService = new QueryService();
+        rowResult = queryService.convertToDTO(BenchmarkData.tableResult(rows, 8));
+        columnarResult = queryService.convertToColumnarDTO(BenchmarkData.tableResult(rows, 8));
+        apiError = new ApiError(HttpStatus.PRECONDITION_FAILED);
+        apiError.setMessage("El contenido del query no puede estar vacío o ser solo espacios en blanco.");
+    }
+
+    @Benchmark
+    public byte[] bigQueryResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(rowResult);
+    }
+
+    @Benchmark
+    public byte[] columnarResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(columnarResult);
+    }
+
+    @Benchmark
+    public byte[] apiError() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiError);
+    }
+}
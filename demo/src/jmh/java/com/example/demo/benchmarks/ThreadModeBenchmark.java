@@ -0,0 +1,147 @@
+package com.example.demo.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import com.example.demo.config.VirtualThreadConfig;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Tanda de peticiones HTTP concurrentes contra un Tomcat embebido con la configuración
+ * por defecto (200 hilos de plataforma) o con el customizer de VirtualThreadConfig (un
+ * hilo virtual por petición), que es el cambio que hace threads.virtual.enabled=true.
+ * El servlet solo simula la espera a BigQuery o MySQL con un sleep: mide cómo escala el
+ * conector de Tomcat con peticiones bloqueantes, no el coste de los servicios. "pinned"
+ * bloquea dentro de un synchronized para mostrar el anclaje al portador. El modo virtual
+ * necesita Java 21:
+ *   mvn -Pjava21,benchmark test-compile exec:exec -Djmh.args=ThreadModeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    @Param({"20"})
+    private long ioMillis;
+
+    private WebServer server;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private URI blockingUri;
+    private URI pinnedUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        // Conexiones persistentes y cola de aceptación amplia: así se mide el executor y no
+        // el establecimiento de conexiones de cada tanda
+        factory.addConnectorCustomizers(connector -> {
+            AbstractHttp11Protocol<?> protocol = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+            protocol.setMaxKeepAliveRequests(-1);
+            protocol.setAcceptCount(requests);
+        });
+        if ("virtual".equals(mode)) {
+            factory.addProtocolHandlerCustomizers(new VirtualThreadConfig().virtualThreadProtocolHandlerCustomizer());
+        }
+        server = factory.getWebServer(context -> context.addServlet("io", new BlockingServlet(ioMillis)).addMapping("/*"));
+        server.start();
+
+        clientExecutor = Executors.newFixedThreadPool(8);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientExecutor).build();
+        blockingUri = URI.create("http://localhost:" + server.getPort() + "/blocking");
+        pinnedUri = URI.create("http://localhost:" + server.getPort() + "/pinned");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+        clientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int blocking() {
+        return serve(blockingUri);
+    }
+
+    @Benchmark
+    public int pinned() {
+        return serve(pinnedUri);
+    }
+
+    // Lanza todas las peticiones a la vez y espera a que respondan todas
+    private int serve(URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        return responses.size();
+    }
+
+    private static final class BlockingServlet extends HttpServlet {
+
+        private final long ioMillis;
+
+        BlockingServlet(long ioMillis) {
+            this.ioMillis = ioMillis;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try {
+                if (request.getRequestURI().endsWith("/pinned")) {
+                    Object monitor = new Object();
+                    synchronized (monitor) {
+                        Thread.sleep(ioMillis);
+                    }
+                } else {
+                    Thread.sleep(ioMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        }
+    }
+}
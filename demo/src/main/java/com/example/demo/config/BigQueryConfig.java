@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import com.example.demo.services.BigQueryClient;
+import com.example.demo.services.BigQueryMetrics;
+import com.example.demo.services.GoogleBigQueryClient;
+
+@Configuration
+public class BigQueryConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(BigQueryClient.class)
+    public BigQueryClient bigQueryClient(ResourceLoader resourceLoader,
+            @Value("${bigquery.credentials-location}") String credentialsLocation,
+            @Value("${bigquery.project-id:}") String projectId,
+            @Value("${bigquery.location:}") String location,
+            @Value("${bigquery.connect-timeout-ms:20000}") int connectTimeoutMs,
+            @Value("${bigquery.read-timeout-ms:60000}") int readTimeoutMs,
+            BigQueryMetrics bigQueryMetrics) {
+        return new GoogleBigQueryClient(resourceLoader.getResource(credentialsLocation), projectId, location,
+                connectTimeoutMs, readTimeoutMs, bigQueryMetrics);
+    }
+}
@@ -1,20 +1,72 @@
 package com.example.demo.config;
 
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.example.demo.security.TokenAuthenticationFilter;
+import com.example.demo.security.TokenService;
 
+/*
+ * Sin sesión: cada petición se autentica con el token del login (TokenAuthenticationFilter).
+ * Las rutas de lectura siguen abiertas; las que actúan en nombre de un usuario llevan
+ * @PreAuthorize con OWNER y comprueban que el {userId} de la ruta es el del token. Las
+ * que modifican o borran un query o comentario por su id exigen AUTHENTICATED y el
+ * servicio comprueba que la fila pertenece al usuario del token. De actuator solo health
+ * e info son públicos; metrics y prometheus piden ROLE_ADMIN (el scraper envía un token).
+ */
 @Configuration
+@EnableMethodSecurity
 public class SecurityConfig{
 
+    // Prefijo con el que se guardan los hashes ("{bcrypt}$2a$..."); sin él la fila es una contraseña antigua en claro
+    public static final String PASSWORD_ENCODER_ID = "bcrypt";
+
+    // Para @PreAuthorize en métodos con un parámetro userId
+    public static final String OWNER = "isAuthenticated() and #userId == principal.id";
+
+    // Rutas sobre una fila concreta (el servicio compara su user_id con principal.id) o que
+    // consumen la cuota de BigQuery del usuario del token
+    public static final String AUTHENTICATED = "isAuthenticated()";
+
+    // Rutas de administración: solo los usuarios de security.admin-user-ids
+    public static final String ADMIN = "hasRole('ADMIN')";
+
     @Bean
-     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http.authorizeHttpRequests().anyRequest().permitAll();
-        http.csrf().disable();
+     public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService,
+            @Value("${security.admin-user-ids:}") Set<Long> adminUserIds) throws Exception {
+        http.authorizeHttpRequests(requests -> requests
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                        .anyRequest().permitAll())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, adminUserIds), UsernamePasswordAuthenticationFilter.class);
         return http.build();
      }
 
-
+    // Subir el coste hace que los hashes existentes se recalculen en el siguiente login
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        return new DelegatingPasswordEncoder(PASSWORD_ENCODER_ID,
+                Map.of(PASSWORD_ENCODER_ID, new BCryptPasswordEncoder(strength)));
+    }
      
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.jdbc.SqlStatementStatistics;
+import com.example.demo.jdbc.StatisticsDataSource;
+
+/*
+ * Envuelve el DataSource (Hikari) con el proxy que alimenta SqlStatementStatistics, de
+ * modo que se ve qué sentencias son caras sin activar show-sql. El proxy añade coste a
+ * cada sentencia, así que está apagado por defecto: se activa con
+ * sql.statistics.enabled=true, p. ej. con el perfil diagnostics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.statistics.enabled", havingValue = "true")
+public class SqlStatisticsConfig {
+
+    // static y con ObjectProvider para no adelantar la creación de beans normales
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor(ObjectProvider<SqlStatementStatistics> statistics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? StatisticsDataSource.wrap(dataSource, statistics.getObject()) : bean;
+            }
+        };
+    }
+}
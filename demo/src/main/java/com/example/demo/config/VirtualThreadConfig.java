@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/*
+ * Modo de ejecución con hilos virtuales (threads.virtual.enabled=true, Java 21). Cada
+ * petición HTTP y cada tarea asíncrona de Spring MVC corre en su propio hilo virtual, que
+ * libera el hilo portador mientras espera a BigQuery o a MySQL. Los jobs de BigQuery
+ * también usan hilos virtuales (ver QueryJobService).
+ *
+ * Un hilo virtual que bloquea dentro de un bloque synchronized se queda anclado a su
+ * portador; para localizarlos se arranca con -Djdk.tracePinnedThreads=short (lo añade el
+ * perfil java21) o se registra el evento JFR jdk.VirtualThreadPinned.
+ */
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-vt-"));
+    }
+}
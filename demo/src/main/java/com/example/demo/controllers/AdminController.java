@@ -0,0 +1,36 @@
+package com.example.demo.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.dto.SqlStatementStatsDTO;
+import com.example.demo.jdbc.SqlStatementStatistics;
+
+@CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize(SecurityConfig.ADMIN)
+public class AdminController {
+
+    @Autowired
+    private SqlStatementStatistics sqlStatementStatistics;
+
+    // orderBy: total (por defecto), max, avg, count, rows o nplusone
+    @GetMapping("/sql-statements")
+    @ResponseStatus(code = HttpStatus.OK)
+    public List<SqlStatementStatsDTO> topStatements(@RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "orderBy", defaultValue = "total") String orderBy) {
+        return sqlStatementStatistics.top(Math.min(limit, 500), orderBy);
+    }
+
+    @DeleteMapping("/sql-statements")
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    public void resetStatements() {
+        sqlStatementStatistics.reset();
+    }
+}
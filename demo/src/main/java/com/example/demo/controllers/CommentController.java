@@ -2,18 +2,25 @@ package com.example.demo.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.demo.config.SecurityConfig;
 import com.example.demo.services.CommentService;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.dto.PageDTO;
+import com.example.demo.dto.CommentBatchItemDTO;
 import com.example.demo.dto.CommentDTO;
 import com.example.demo.dto.CommentDetailDTO;
+import com.example.demo.mappers.CommentMapper;
+import com.example.demo.security.AuthenticatedUser;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 @CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
@@ -26,40 +33,67 @@ public class CommentController {
     private CommentService commentService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CommentMapper commentMapper;
 
     @GetMapping
     @ResponseStatus(code = HttpStatus.OK)
-    public List<CommentDetailDTO> findAll() {
+    public List<CommentDTO> findAll() {
         List<CommentEntity> commentEntities = commentService.getAllComments();
-        return modelMapper.map(commentEntities, new TypeToken<List<CommentDTO>>() {}.getType());
+        return commentMapper.toDTOs(commentEntities);
+    }
+
+    @GetMapping(params = "size")
+    @ResponseStatus(code = HttpStatus.OK)
+    public PageDTO<CommentDTO> findPage(Pageable pageable,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (afterId != null) {
+            Slice<CommentEntity> slice = commentService.getCommentsAfter(afterId, pageable.getPageSize());
+            List<CommentEntity> content = slice.getContent();
+            Long lastId = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+            return PageDTO.ofKeyset(slice, commentMapper.toDTOs(content), lastId);
+        }
+        Slice<CommentEntity> slice = commentService.getCommentsPage(pageable, withTotal);
+        return PageDTO.of(slice, commentMapper.toDTOs(slice.getContent()));
     }
 
     @GetMapping(value = "/{id}")
     @ResponseStatus(code = HttpStatus.OK)
     public CommentDetailDTO findOne(@PathVariable("id") Long id) throws EntityNotFoundException {
-        CommentEntity commentEntity = commentService.getComment(id);
-        return modelMapper.map(commentEntity, CommentDetailDTO.class);
+        CommentEntity commentEntity = commentService.getCommentWithDetails(id);
+        return commentMapper.toDetailDTO(commentEntity);
+    }
+
+    @PostMapping("batch")
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    @ResponseStatus(code = HttpStatus.CREATED)
+    public List<CommentDTO> createBatch(@RequestBody List<CommentBatchItemDTO> items,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws IllegalOperationException, EntityNotFoundException {
+        return commentMapper.toDTOs(commentService.createComments(principal.getId(), items));
     }
 
     @PostMapping("users/{userId}/queries/{queryId}")
+    @PreAuthorize(SecurityConfig.OWNER)
     @ResponseStatus(code = HttpStatus.CREATED)
     public CommentDTO create(@PathVariable("userId") Long userId, @PathVariable("queryId") Long queryId, @RequestBody CommentDTO commentDTO) throws IllegalOperationException, EntityNotFoundException {
-        CommentEntity commentEntity = commentService.createComment(userId,queryId, modelMapper.map(commentDTO, CommentEntity.class));
-        return modelMapper.map(commentEntity, CommentDTO.class);
+        CommentEntity commentEntity = commentService.createComment(userId,queryId, commentMapper.toEntity(commentDTO));
+        return commentMapper.toDTO(commentEntity);
     }
 
     @PutMapping(value = "/{id}")
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
     @ResponseStatus(code = HttpStatus.OK)
-    public CommentDTO update(@PathVariable("id") Long id, @RequestBody CommentDTO commentDTO)
-            throws EntityNotFoundException, IllegalOperationException {
-        CommentEntity commentEntity = commentService.updateComment(id, modelMapper.map(commentDTO, CommentEntity.class));
-        return modelMapper.map(commentEntity, CommentDTO.class);
+    public CommentDTO update(@PathVariable("id") Long id, @RequestBody CommentDTO commentDTO,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        CommentEntity commentEntity = commentService.updateComment(principal.getId(), id, commentMapper.toEntity(commentDTO));
+        return commentMapper.toDTO(commentEntity);
     }
 
     @DeleteMapping(value = "/{id}")
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable("id") Long id) throws EntityNotFoundException, IllegalOperationException {
-        commentService.deleteComment(id);
+    public void delete(@PathVariable("id") Long id,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        commentService.deleteComment(principal.getId(), id);
     }
 }
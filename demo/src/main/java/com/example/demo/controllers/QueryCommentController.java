@@ -1,9 +1,9 @@
 package com.example.demo.controllers;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.config.SecurityConfig;
 import com.example.demo.dto.CommentDTO;
 import com.example.demo.dto.QueryDTO;
 import com.example.demo.entities.CommentEntity;
@@ -19,6 +20,8 @@ import com.example.demo.entities.QueryEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
 import com.example.demo.services.QueryCommentService;
+import com.example.demo.mappers.CommentMapper;
+import com.example.demo.security.AuthenticatedUser;
 import java.util.List;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
@@ -32,27 +35,28 @@ public class QueryCommentController {
     private QueryCommentService queryCommentService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CommentMapper commentMapper;
 
     @PostMapping(value = "/{queryId}/comments/{commentId}")
     @ResponseStatus(code = HttpStatus.CREATED)
-    public CommentDTO addCommentToQuery(@PathVariable("queryId") Long queryId, @PathVariable("commentId") Long commentId) 
-            throws EntityNotFoundException, IllegalOperationException {
-        CommentEntity commentEntity = queryCommentService.addCommentToQuery(queryId, commentId);
-        return modelMapper.map(commentEntity, CommentDTO.class);
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public CommentDTO addCommentToQuery(@PathVariable("queryId") Long queryId, @PathVariable("commentId") Long commentId,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        CommentEntity commentEntity = queryCommentService.addCommentToQuery(principal.getId(), queryId, commentId);
+        return commentMapper.toDTO(commentEntity);
     }
 
     @GetMapping(value = "/{queryId}/comments")
     @ResponseStatus(code = HttpStatus.OK)
     public List<CommentDTO> getCommentsByQuery(@PathVariable("queryId") Long queryId) throws EntityNotFoundException {
-        List<CommentEntity> comments = queryCommentService.getCommentsByQuery(queryId);
-        return modelMapper.map(comments, new TypeToken<List<CommentDTO>>(){}.getType());
+        return queryCommentService.getCommentDTOsByQuery(queryId);
     }
 
     @DeleteMapping(value = "/{queryId}/comments/{commentId}")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public void removeCommentFromQuery(@PathVariable("queryId") Long queryId, @PathVariable("commentId") Long commentId) 
-            throws EntityNotFoundException, IllegalOperationException {
-        queryCommentService.removeCommentFromQuery(queryId, commentId);
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public void removeCommentFromQuery(@PathVariable("queryId") Long queryId, @PathVariable("commentId") Long commentId,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        queryCommentService.removeCommentFromQuery(principal.getId(), queryId, commentId);
     }
 }
@@ -2,15 +2,26 @@ package com.example.demo.controllers;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import reactor.core.publisher.Flux;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.services.PublicQueryFeed;
+import com.example.demo.services.QueryResultCache;
 import com.example.demo.services.QueryService;
 import com.google.cloud.bigquery.TableResult;
 import com.example.demo.entities.QueryEntity;
@@ -18,9 +29,12 @@ import com.example.demo.entities.QueryEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
 import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.QueryCacheStatsDTO;
+import com.example.demo.dto.PageDTO;
 import com.example.demo.dto.QueryDTO;
 import com.example.demo.dto.QueryDetailDTO;
 import com.example.demo.dto.QueryDTO;
+import com.example.demo.mappers.QueryMapper;
 import org.slf4j.Logger;
 
 @CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
@@ -30,53 +44,130 @@ public class QueryController {
 
     private static final Logger logger = LoggerFactory.getLogger(QueryController.class);
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int DEFAULT_PAGE_SIZE = 500;
+
     @Autowired
     private QueryService queryService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private QueryMapper queryMapper;
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private PublicQueryFeed publicQueryFeed;
 
+    // Con ETag: si coincide con If-None-Match, Spring responde 304 sin cuerpo
     @GetMapping
+    public ResponseEntity<List<QueryDTO>> findAll() {
+        PublicQueryFeed.Snapshot snapshot = publicQueryFeed.current();
+        return ResponseEntity.ok().eTag(snapshot.getEtag()).body(snapshot.getQueries());
+    }
+
+    @GetMapping(params = "size")
     @ResponseStatus(code = HttpStatus.OK)
-    public List<QueryDetailDTO> findAll() {
-        List<QueryEntity> queryEntities = queryService.getAllQueries();
-        return modelMapper.map(queryEntities, new TypeToken<List<QueryDTO>>() {}.getType());
+    public PageDTO<QueryDTO> findPage(Pageable pageable,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (afterId != null) {
+            Slice<QueryEntity> slice = queryService.getQueriesAfter(afterId, pageable.getPageSize());
+            List<QueryEntity> content = slice.getContent();
+            Long lastId = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+            return PageDTO.ofKeyset(slice, queryMapper.toDTOs(content), lastId);
+        }
+        Slice<QueryEntity> slice = queryService.getQueriesPage(pageable, withTotal);
+        return PageDTO.of(slice, queryMapper.toDTOs(slice.getContent()));
     }
 
     @GetMapping(value = "/{id}")
     @ResponseStatus(code = HttpStatus.OK)
     public QueryDetailDTO findOne(@PathVariable("id") Long id) throws EntityNotFoundException {
-        QueryEntity queryEntity = queryService.getQuery(id);
-        return modelMapper.map(queryEntity, QueryDetailDTO.class);
+        QueryEntity queryEntity = queryService.getQueryWithDetails(id);
+        return queryMapper.toDetailDTO(queryEntity);
     }
 
     @PostMapping("/users/{userId}")
     @ResponseStatus(code = HttpStatus.CREATED)
+    @PreAuthorize(SecurityConfig.OWNER)
     public QueryDTO create(@PathVariable("userId") Long userId, @RequestBody QueryDTO queryDTO) throws IllegalOperationException, EntityNotFoundException {
-        QueryEntity queryEntity = queryService.createQuery(userId, modelMapper.map(queryDTO, QueryEntity.class));
+        QueryEntity queryEntity = queryService.createQuery(userId, queryMapper.toEntity(queryDTO));
         
-        return modelMapper.map(queryEntity, QueryDTO.class);
+        return queryMapper.toDTO(queryEntity);
     }
 
     @PutMapping(value = "/{id}")
     @ResponseStatus(code = HttpStatus.OK)
-    public QueryDTO update(@PathVariable("id") Long id, @RequestBody QueryDTO queryDTO)
-            throws EntityNotFoundException, IllegalOperationException {
-        QueryEntity queryEntity = queryService.updateQuery(id, modelMapper.map(queryDTO, QueryEntity.class));
-        return modelMapper.map(queryEntity, QueryDTO.class);
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public QueryDTO update(@PathVariable("id") Long id, @RequestBody QueryDTO queryDTO,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        QueryEntity queryEntity = queryService.updateQuery(principal.getId(), id, queryMapper.toEntity(queryDTO));
+        return queryMapper.toDTO(queryEntity);
     }
 
     @DeleteMapping(value = "/{id}")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable("id") Long id) throws EntityNotFoundException, IllegalOperationException {
-        queryService.deleteQuery(id);
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public void delete(@PathVariable("id") Long id,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        queryService.deleteQuery(principal.getId(), id);
     }
 
+    // Las ejecuciones exigen token: los bytes facturados se cargan al presupuesto diario del usuario
     @PostMapping("/execute")
-    public ResponseEntity<BigQueryResultDTO> executeQuery(@RequestBody QueryDTO queryDTO) throws IllegalOperationException, InterruptedException, IOException  {
-        TableResult tableResult = queryService.executeQuery(queryDTO.getContent());
-        logger.debug("PERRO HPTA", tableResult);
-        BigQueryResultDTO resultDTO = queryService.convertToDTO(tableResult);
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public ResponseEntity<?> executeQuery(@RequestBody(required = false) QueryDTO queryDTO,
+            @RequestParam(value = "cache", defaultValue = "true") boolean useCache,
+            @RequestParam(value = "format", defaultValue = "rows") String format,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "pageToken", required = false) String pageToken,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws IllegalOperationException, EntityNotFoundException, InterruptedException, IOException  {
+        Long userId = principal.getId();
+        String content = queryDTO == null ? null : queryDTO.getContent();
+        if (pageSize != null || pageToken != null) {
+            if (!"rows".equals(format)) {
+                throw new IllegalOperationException("La paginación solo está disponible con format=rows.");
+            }
+            return ResponseEntity.ok(queryService.getQueryPage(userId, content, pageSize == null ? DEFAULT_PAGE_SIZE : pageSize, pageToken));
+        }
+        if ("columnar".equals(format)) {
+            return ResponseEntity.ok(queryService.getColumnarQueryResult(userId, content, useCache));
+        }
+        if (!"rows".equals(format)) {
+            throw new IllegalOperationException("Formato de resultado no soportado: " + format);
+        }
+        BigQueryResultDTO resultDTO = queryService.getQueryResult(userId, content, useCache);
         return ResponseEntity.ok(resultDTO);
 }
+
+    /*
+     * Misma ruta con Accept: application/x-ndjson. Spring MVC pide las filas al Flux de una
+     * en una según se escriben en la respuesta, y el Flux solo lee de BigQuery la siguiente
+     * página cuando se ha consumido la anterior.
+     */
+    @PostMapping(value = "/execute", produces = "application/x-ndjson")
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public Flux<Map<String, Object>> executeQueryReactive(@RequestBody(required = false) QueryDTO queryDTO,
+            @RequestParam(value = "pageSize", defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws IllegalOperationException, EntityNotFoundException, InterruptedException {
+        return queryService.streamQueryRows(principal.getId(), queryDTO == null ? null : queryDTO.getContent(), pageSize);
+    }
+
+    @PostMapping(value = "/execute/stream", produces = "application/x-ndjson")
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public ResponseEntity<StreamingResponseBody> executeQueryStream(@RequestBody QueryDTO queryDTO,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws IllegalOperationException, EntityNotFoundException, InterruptedException, IOException {
+        TableResult tableResult = queryService.executeQuery(principal.getId(), queryDTO.getContent());
+        StreamingResponseBody body = out -> queryService.writeRows(tableResult, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/cache/stats")
+    @ResponseStatus(code = HttpStatus.OK)
+    @PreAuthorize(SecurityConfig.ADMIN)
+    public QueryCacheStatsDTO cacheStats() {
+        return queryResultCache.stats();
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.dto.QueryJobDTO;
+import com.example.demo.dto.QueryJobResultDTO;
+import com.example.demo.exceptions.EntityNotFoundException;
+import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.services.QueryJobService;
+
+@CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
+@RestController
+@RequestMapping("/api/queries/jobs")
+public class QueryJobController {
+
+    @Autowired
+    private QueryJobService queryJobService;
+
+    @PostMapping
+    @ResponseStatus(code = HttpStatus.ACCEPTED)
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public QueryJobDTO submit(@RequestBody QueryDTO queryDTO,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws IllegalOperationException {
+        return queryJobService.submit(principal.getId(), queryDTO.getContent());
+    }
+
+    // Estado y, mientras se ejecuta, progreso por etapas del plan de BigQuery
+    @GetMapping(value = "/{jobId}")
+    @ResponseStatus(code = HttpStatus.OK)
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public QueryJobDTO findOne(@PathVariable("jobId") String jobId,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        return queryJobService.getJob(principal.getId(), jobId);
+    }
+
+    @GetMapping(value = "/{jobId}/results")
+    @ResponseStatus(code = HttpStatus.OK)
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public QueryJobResultDTO results(@PathVariable("jobId") String jobId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "100") int size,
+            @AuthenticationPrincipal AuthenticatedUser principal)
+            throws EntityNotFoundException, IllegalOperationException, InterruptedException {
+        return queryJobService.getResults(principal.getId(), jobId, page, size);
+    }
+
+    @DeleteMapping(value = "/{jobId}")
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    @PreAuthorize(SecurityConfig.AUTHENTICATED)
+    public void cancel(@PathVariable("jobId") String jobId,
+            @AuthenticationPrincipal AuthenticatedUser principal) throws EntityNotFoundException, IllegalOperationException {
+        queryJobService.cancel(principal.getId(), jobId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.services.UserCommentService;
+import com.example.demo.exceptions.EntityNotFoundException;
+import com.example.demo.exceptions.IllegalOperationException;
+import org.springframework.web.bind.annotation.CrossOrigin;
+
+@CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
+
+@RestController
+@RequestMapping("api/users")
+public class UserCommentController {
+
+    @Autowired
+    private UserCommentService userCommentService;
+
+    // La autoría del comentario se comprueba contra el id del token, sin cargar el usuario
+    @DeleteMapping(value = "/{userId}/comments/{commentId}")
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    @PreAuthorize(SecurityConfig.OWNER)
+    public void removeCommentFromUser(@PathVariable("userId") Long userId, @PathVariable("commentId") Long commentId)
+            throws EntityNotFoundException, IllegalOperationException {
+        userCommentService.removeCommentFromUser(userId, commentId);
+    }
+}
@@ -2,19 +2,27 @@ package com.example.demo.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.demo.config.SecurityConfig;
+import com.example.demo.services.QueryQuotaService;
 import com.example.demo.services.UserService;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.dto.AuthTokenDTO;
+import com.example.demo.dto.PageDTO;
+import com.example.demo.dto.QueryUsageDTO;
 import com.example.demo.dto.UserDTO;
 import com.example.demo.dto.UserDetailDTO;
+import com.example.demo.mappers.UserMapper;
+import com.example.demo.security.TokenService;
 
 @CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
 @RestController
@@ -25,46 +33,86 @@ public class UserController {
     private UserService userService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
+
+    @Autowired
+    private QueryQuotaService queryQuotaService;
+
+    @Autowired
+    private TokenService tokenService;
 
     @GetMapping
     @ResponseStatus(code = HttpStatus.OK)
     public List<UserDetailDTO> findAll() {
-        List<UserEntity> userEntities = userService.getAllUsers();
-        return modelMapper.map(userEntities, new TypeToken<List<UserDetailDTO>>() {}.getType());
+        List<UserEntity> userEntities = userService.getAllUsersWithDetails();
+        return userMapper.toDetailDTOs(userEntities);
     }
+    @GetMapping(params = "size")
+    @ResponseStatus(code = HttpStatus.OK)
+    public PageDTO<UserDetailDTO> findPage(Pageable pageable,
+            @RequestParam(value = "afterId", required = false) Long afterId,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        if (afterId != null) {
+            Slice<UserEntity> slice = userService.getUsersAfter(afterId, pageable.getPageSize());
+            List<UserEntity> content = slice.getContent();
+            Long lastId = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+            return PageDTO.ofKeyset(slice, userMapper.toDetailDTOs(content), lastId);
+        }
+        Slice<UserEntity> slice = userService.getUsersPage(pageable, withTotal);
+        return PageDTO.of(slice, userMapper.toDetailDTOs(slice.getContent()));
+    }
+
     @GetMapping(value = "/{id}")
     @ResponseStatus(code = HttpStatus.OK)
     public UserDetailDTO findOne(@PathVariable("id") Long id) throws EntityNotFoundException {
-        UserEntity userEntity = userService.getUser(id);
-        return modelMapper.map(userEntity, UserDetailDTO.class);
+        UserEntity userEntity = userService.getUserWithDetails(id);
+        return userMapper.toDetailDTO(userEntity);
     }
 
     @PostMapping
     @ResponseStatus(code = HttpStatus.CREATED)
     public UserDTO create(@RequestBody UserDTO userDTO) throws IllegalOperationException {
-        UserEntity userEntity = userService.createUser(modelMapper.map(userDTO, UserEntity.class));
-        return modelMapper.map(userEntity, UserDTO.class);
+        UserEntity userEntity = userService.createUser(userMapper.toEntity(userDTO));
+        return userMapper.toDTO(userEntity);
     }
 
     @PutMapping(value = "/{id}")
     @ResponseStatus(code = HttpStatus.OK)
-    public UserDTO update(@PathVariable("id") Long id, @RequestBody UserDTO userDTO)
+    @PreAuthorize(SecurityConfig.OWNER)
+    public UserDTO update(@PathVariable("id") Long userId, @RequestBody UserDTO userDTO)
             throws EntityNotFoundException, IllegalOperationException {
-        UserEntity userEntity = userService.updateUser(id, modelMapper.map(userDTO, UserEntity.class));
-        return modelMapper.map(userEntity, UserDTO.class);
+        UserEntity userEntity = userService.updateUser(userId, userMapper.toEntity(userDTO));
+        return userMapper.toDTO(userEntity);
     }
 
+    // Con async=true responde 202 en cuanto comprueba que el usuario existe y el borrado sigue en segundo plano
     @DeleteMapping(value = "/{id}")
-    @ResponseStatus(code = HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable("id") Long id) throws EntityNotFoundException, IllegalOperationException {
-        userService.deleteUser(id);
+    @PreAuthorize(SecurityConfig.OWNER)
+    public ResponseEntity<Void> delete(@PathVariable("id") Long userId,
+            @RequestParam(value = "async", defaultValue = "false") boolean async) throws EntityNotFoundException, IllegalOperationException {
+        if (async) {
+            userService.deleteUserAsync(userId);
+            return ResponseEntity.accepted().build();
+        }
+        userService.deleteUser(userId);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/login")
-    public ResponseEntity<UserDTO> login(@RequestBody UserDTO userDTO) throws EntityNotFoundException, IllegalOperationException{
+    public ResponseEntity<AuthTokenDTO> login(@RequestBody UserDTO userDTO) throws EntityNotFoundException, IllegalOperationException{
         UserEntity userEntity = userService.authenticateUser(userDTO.getEmail(), userDTO.getPassword());
-        return ResponseEntity.ok(modelMapper.map(userEntity, UserDTO.class));
+        AuthTokenDTO token = new AuthTokenDTO();
+        token.setAccessToken(tokenService.issue(userEntity));
+        token.setExpiresIn(tokenService.getTtlSeconds());
+        token.setUser(userMapper.toDTO(userEntity));
+        return ResponseEntity.ok(token);
 }
 
+    // Bytes de BigQuery facturados hoy al usuario y lo que le queda de su presupuesto diario
+    @GetMapping(value = "/{id}/query-usage")
+    @ResponseStatus(code = HttpStatus.OK)
+    @PreAuthorize(SecurityConfig.OWNER)
+    public QueryUsageDTO queryUsage(@PathVariable("id") Long userId) throws EntityNotFoundException {
+        return queryQuotaService.getUsage(userId);
+    }
 }
@@ -2,17 +2,18 @@ package com.example.demo.controllers;
 
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.demo.config.SecurityConfig;
 import com.example.demo.services.UserQueryService;
 import com.example.demo.entities.QueryEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
 import com.example.demo.dto.QueryDTO;
+import com.example.demo.mappers.QueryMapper;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 @CrossOrigin(origins = {"http://localhost:4200","http://localhost:8080"})
@@ -25,25 +26,35 @@ public class UserQueryController {
     private UserQueryService userQueryService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private QueryMapper queryMapper;
 
     @PostMapping(value = "/{userId}/queries")
     @ResponseStatus(code = HttpStatus.CREATED)
+    @PreAuthorize(SecurityConfig.OWNER)
     public QueryDTO addQueryToUser(@PathVariable("userId") Long userId, @RequestBody QueryDTO queryDTO) 
             throws EntityNotFoundException, IllegalOperationException {
-        QueryEntity queryEntity = userQueryService.addQueryToUser(userId, modelMapper.map(queryDTO, QueryEntity.class));
-        return modelMapper.map(queryEntity, QueryDTO.class);
+        QueryEntity queryEntity = userQueryService.addQueryToUser(userId, queryMapper.toEntity(queryDTO));
+        return queryMapper.toDTO(queryEntity);
+    }
+
+    @PostMapping(value = "/{userId}/queries/batch")
+    @ResponseStatus(code = HttpStatus.CREATED)
+    @PreAuthorize(SecurityConfig.OWNER)
+    public List<QueryDTO> addQueriesToUser(@PathVariable("userId") Long userId, @RequestBody List<QueryDTO> queryDTOs)
+            throws EntityNotFoundException, IllegalOperationException {
+        return queryMapper.toDTOs(userQueryService.addQueriesToUser(userId, queryMapper.toEntities(queryDTOs)));
     }
 
     @GetMapping(value = "/{userId}/queries")
     @ResponseStatus(code = HttpStatus.OK)
     public List<QueryDTO> getQueriesByUser(@PathVariable("userId") Long userId) throws EntityNotFoundException {
-        List<QueryEntity> queries = userQueryService.getQueriesByUser(userId);
-        return modelMapper.map(queries, new TypeToken<List<QueryDTO>>(){}.getType());
+        return userQueryService.getQueryDTOsByUser(userId);
     }
 
+    // La propiedad del query se comprueba contra el id del token, sin cargar el usuario
     @DeleteMapping(value = "/{userId}/queries/{queryId}")
     @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    @PreAuthorize(SecurityConfig.OWNER)
     public void removeQueryFromUser(@PathVariable("userId") Long userId, @PathVariable("queryId") Long queryId) 
             throws EntityNotFoundException, IllegalOperationException {
         userQueryService.removeQueryFromUser(userId, queryId);
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Respuesta del login: el token se envía después como "Authorization: Bearer <accessToken>"
+@Getter
+@Setter
+public class AuthTokenDTO {
+
+    private String accessToken;
+    private String tokenType = "Bearer";
+    private long expiresIn;
+    private UserDTO user;
+}
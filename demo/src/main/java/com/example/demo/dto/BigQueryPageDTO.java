@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BigQueryPageDTO {
+
+    private List<Map<String, Object>> rows;
+    private long totalRows;
+
+    // Token para pedir la siguiente página; null en la última
+    private String nextPageToken;
+
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ColumnDTO {
+
+    private String name;
+    private String type;
+
+    // long[], double[], boolean[] o String[] según el tipo de la columna
+    private Object values;
+
+    // Mapa de bits de nulos en palabras de 32 bits (bit i de nulls[i / 32]); ausente si no hay nulos
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private int[] nulls;
+
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/*
+ * Resultado de BigQuery en formato columnar: el esquema se envía una sola vez y cada
+ * columna lleva sus valores en un arreglo tipado.
+ */
+@Getter
+@Setter
+public class ColumnarResultDTO {
+
+    private long rowCount;
+    private List<ColumnDTO> columns;
+
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CommentBatchItemDTO {
+
+    // El autor es el usuario del token, no se indica por comentario
+    private Long queryId;
+    private String content;
+
+}
@@ -0,0 +1,49 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageDTO<T> {
+
+    private List<T> content;
+    private Integer page;
+    private int size;
+    private boolean hasNext;
+
+    // Solo se informa cuando se pidió withTotal=true
+    private Long totalElements;
+
+    // Cursor para la siguiente página en modo afterId
+    private Long nextAfterId;
+
+    public static <T> PageDTO<T> of(Slice<?> slice, List<T> content) {
+        PageDTO<T> dto = new PageDTO<>();
+        dto.setContent(content);
+        dto.setPage(slice.getNumber());
+        dto.setSize(slice.getSize());
+        dto.setHasNext(slice.hasNext());
+        if (slice instanceof Page<?> page) {
+            dto.setTotalElements(page.getTotalElements());
+        }
+        return dto;
+    }
+
+    public static <T> PageDTO<T> ofKeyset(Slice<?> slice, List<T> content, Long lastId) {
+        PageDTO<T> dto = new PageDTO<>();
+        dto.setContent(content);
+        dto.setSize(slice.getSize());
+        dto.setHasNext(slice.hasNext());
+        dto.setNextAfterId(slice.hasNext() ? lastId : null);
+        return dto;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class QueryJobDTO {
+
+    private String id;
+    private QueryJobState state;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Long totalRows;
+    // Etapas del plan de BigQuery; solo mientras el job está en RUNNING y BigQuery ya lo ha publicado
+    private Integer completedStages;
+    private Integer totalStages;
+    private String error;
+
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class QueryJobResultDTO {
+
+    private String jobId;
+    private int page;
+    private int size;
+    private long totalRows;
+    private List<Map<String, Object>> rows;
+
+}
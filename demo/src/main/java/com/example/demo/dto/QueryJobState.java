@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+public enum QueryJobState {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED
+}
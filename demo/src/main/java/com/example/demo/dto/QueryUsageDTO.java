@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class QueryUsageDTO {
+
+    private Long userId;
+    private LocalDate date;
+    private long bytesBilled;
+    private long reservedBytes;
+    private int queryCount;
+    private long dailyBytesLimit;
+    private long remainingBytes;
+    private long maxBytesPerQuery;
+
+}
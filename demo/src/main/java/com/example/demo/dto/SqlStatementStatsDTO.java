@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SqlStatementStatsDTO {
+
+    private String statement;
+    private long count;
+    private long errors;
+    private long rows;
+    private double totalMillis;
+    private double avgMillis;
+    private double maxMillis;
+    // Ejecuciones por tramo de latencia: "5ms" cuenta las que tardaron más de 1 ms y hasta 5 ms
+    private Map<String, Long> histogram;
+    // Peticiones HTTP en las que la sentencia se repitió lo bastante como para parecer un N+1
+    private long suspectedNPlusOneRequests;
+    private List<String> callers;
+
+}
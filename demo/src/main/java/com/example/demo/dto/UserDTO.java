@@ -1,5 +1,7 @@
 package com.example.demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,6 +14,8 @@ public class UserDTO {
 
     private Long id;
     private String email;
+    // Solo de entrada: las respuestas nunca incluyen el hash
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     
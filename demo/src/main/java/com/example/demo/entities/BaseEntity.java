@@ -14,6 +14,7 @@ public abstract class BaseEntity {
 
 	@PodamExclude
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	// SEQUENCE (tabla <entidad>_seq en MySQL, optimizador pooled-lo) permite agrupar los INSERT en lotes JDBC; IDENTITY no
+	@GeneratedValue(strategy = GenerationType.SEQUENCE)
 	private Long id;
 }
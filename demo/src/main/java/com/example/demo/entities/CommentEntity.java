@@ -1,20 +1,35 @@
 package com.example.demo.entities;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.Data;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+// Las colecciones cacheadas de usuario y query guardan solo ids: sin cachear también los
+// comentarios, cada acierto de colección acabaría cargándolos uno a uno desde la base
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = "idx_comment_entity_user", columnList = "user_id"),
+        @Index(name = "idx_comment_entity_query", columnList = "query_id")
+})
 public class CommentEntity extends BaseEntity {
 
     private String content; 
 
-    @ManyToOne(cascade = CascadeType.PERSIST)
+    @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     private UserEntity user;
 
-    @ManyToOne(cascade = CascadeType.PERSIST)
+    @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     private QueryEntity query;
 
 
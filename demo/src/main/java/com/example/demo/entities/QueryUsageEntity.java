@@ -0,0 +1,37 @@
+package com.example.demo.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// Bytes facturados por BigQuery a un usuario en un día (UTC); una fila por usuario y día.
+// Igualdad por id (la de BaseEntity): comparar campos cargaría el usuario perezoso
+@Data
+@EqualsAndHashCode(callSuper = true, onlyExplicitlyIncluded = true)
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_query_usage_user_date", columnNames = {"user_id", "usage_date"}))
+public class QueryUsageEntity extends BaseEntity {
+
+    // Al borrar el usuario la base borra su consumo, sin cargarlo en memoria
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private UserEntity user;
+
+    @Column(name = "usage_date")
+    private LocalDate usageDate;
+    private long bytesBilled;
+    // Estimación de las queries autorizadas que aún no han terminado
+    private long reservedBytes;
+    private int queryCount;
+
+}
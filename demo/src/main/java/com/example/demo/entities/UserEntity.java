@@ -4,22 +4,34 @@ import jakarta.persistence.Entity;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.entities.QueryEntity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_user_entity_email", columnNames = "email"))
 public class UserEntity extends BaseEntity {
 
     private String email;
     private String password;
 
-    @OneToMany(cascade=CascadeType.REMOVE)
+    // Lado inverso: la relación la guarda la columna user_id de comment_entity y query_entity
+    @OneToMany(mappedBy = "user", cascade=CascadeType.REMOVE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<CommentEntity> comments;
 
-    @OneToMany(cascade=CascadeType.REMOVE)
+    @OneToMany(mappedBy = "user", cascade=CascadeType.REMOVE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<QueryEntity> queries;
 
 
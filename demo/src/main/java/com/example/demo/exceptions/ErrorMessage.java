@@ -10,6 +10,8 @@ public final class ErrorMessage {
 	public static final String COMMENT_NOT_FOUND = "COMMENT NOT FOUND";
 	public static final String COMMENT_NOT_VALID = "COMMENT NOT VALID";
 
+	public static final String QUERY_JOB_NOT_FOUND = "QUERY JOB NOT FOUND";
+
 
 	private ErrorMessage() {
 		throw new IllegalStateException("Utility class");
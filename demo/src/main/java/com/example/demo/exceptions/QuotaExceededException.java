@@ -0,0 +1,21 @@
+package com.example.demo.exceptions;
+
+/*
+ * Excepción que se lanza cuando un usuario ha agotado su presupuesto diario de bytes en
+ * BigQuery. Se responde con 429 y Retry-After hasta el siguiente reinicio del presupuesto.
+ */
+public class QuotaExceededException extends IllegalOperationException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	public QuotaExceededException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
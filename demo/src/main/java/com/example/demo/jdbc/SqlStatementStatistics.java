@@ -0,0 +1,228 @@
+package com.example.demo.jdbc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.SqlStatementStatsDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Estadísticas por forma de sentencia (StatementShape) que recoge el proxy JDBC: número
+ * de ejecuciones, errores, filas, latencia media/máxima e histograma por tramos, y de qué
+ * clase de la aplicación salió. Además cuenta las ejecuciones de cada forma dentro de una
+ * petición HTTP: un SELECT que se repite n-plus-one-threshold veces en la misma petición
+ * suele ser una carga perezosa por fila (N+1) y se registra y se avisa en el log.
+ *
+ * El número de formas está acotado; a partir de max-shapes el resto se agrupa en OTHER.
+ */
+@Component
+public class SqlStatementStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementStatistics.class);
+
+    static final String OTHER = "(otras sentencias)";
+    private static final long[] BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 5000};
+    private static final int MAX_CALLERS = 5;
+
+    private final MeterRegistry registry;
+    private final int maxShapes;
+    private final int nPlusOneThreshold;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private final ThreadLocal<RequestScope> currentRequest = new ThreadLocal<>();
+
+    public SqlStatementStatistics(MeterRegistry registry,
+            @Value("${sql.statistics.max-shapes:1000}") int maxShapes,
+            @Value("${sql.statistics.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.registry = registry;
+        this.maxShapes = maxShapes;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    ShapeStats record(String sql, long nanos, long rows, boolean failed) {
+        String shape = StatementShape.of(sql);
+        ShapeStats stats = shapeStats(shape);
+        stats.record(nanos, rows, failed);
+        timer(StatementShape.type(shape), failed ? "error" : "success").record(nanos, TimeUnit.NANOSECONDS);
+
+        RequestScope request = currentRequest.get();
+        if (request != null && StatementShape.isSelect(shape)) {
+            int executions = request.executions.merge(shape, 1, Integer::sum);
+            if (executions == nPlusOneThreshold) {
+                stats.nPlusOneRequests.increment();
+                String caller = stats.captureCaller();
+                logger.warn("Posible N+1 en {}: {} ejecuciones de \"{}\" (desde {})", request.description, executions, shape, caller);
+            }
+        }
+        return stats;
+    }
+
+    public void beginRequest(String description) {
+        currentRequest.set(new RequestScope(description));
+    }
+
+    public void endRequest() {
+        currentRequest.remove();
+    }
+
+    public List<SqlStatementStatsDTO> top(int limit, String orderBy) {
+        Comparator<ShapeStats> order = switch (orderBy == null ? "total" : orderBy) {
+            case "max" -> Comparator.comparingLong(s -> s.maxNanos.get());
+            case "avg" -> Comparator.comparingDouble(ShapeStats::avgNanos);
+            case "count" -> Comparator.comparingLong(s -> s.count.sum());
+            case "rows" -> Comparator.comparingLong(s -> s.rows.sum());
+            case "nplusone" -> Comparator.comparingLong(s -> s.nPlusOneRequests.sum());
+            default -> Comparator.comparingLong(s -> s.totalNanos.sum());
+        };
+        List<ShapeStats> sorted = new ArrayList<>(shapes.values());
+        sorted.sort(order.reversed());
+        return sorted.stream().limit(Math.max(limit, 0)).map(ShapeStats::toDTO).toList();
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    // Pocas combinaciones (tipo x resultado): se registran una vez y no en cada sentencia
+    private Timer timer(String type, String outcome) {
+        return timers.computeIfAbsent(new TimerKey(type, outcome), key -> Timer.builder("db.statements")
+                .description("Sentencias JDBC ejecutadas, por tipo")
+                .tag("type", key.type())
+                .tag("outcome", key.outcome())
+                .register(registry));
+    }
+
+    private ShapeStats shapeStats(String shape) {
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER, ShapeStats::new);
+        }
+        return shapes.computeIfAbsent(shape, key -> {
+            ShapeStats created = new ShapeStats(key);
+            // Solo la primera vez: recorrer la pila en cada sentencia sería demasiado caro
+            created.captureCaller();
+            return created;
+        });
+    }
+
+    static final class ShapeStats {
+
+        private final String shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] histogram = new LongAdder[BUCKETS_MILLIS.length + 1];
+        private final LongAdder nPlusOneRequests = new LongAdder();
+        private final Set<String> callers = ConcurrentHashMap.newKeySet();
+
+        ShapeStats(String shape) {
+            this.shape = shape;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, long rowCount, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (failed) {
+                errors.increment();
+            }
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKETS_MILLIS.length && millis > BUCKETS_MILLIS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket].increment();
+        }
+
+        void addRows(long rowCount) {
+            rows.add(rowCount);
+        }
+
+        double avgNanos() {
+            long executions = count.sum();
+            return executions == 0 ? 0 : (double) totalNanos.sum() / executions;
+        }
+
+        // Primer método de la aplicación en la pila, sin contar el propio proxy
+        String captureCaller() {
+            String caller = StackWalker.getInstance().walk(frames -> frames
+                    .filter(frame -> frame.getClassName().startsWith("com.example.demo.")
+                            && !isInternal(frame.getClassName(), StatisticsDataSource.class)
+                            && !isInternal(frame.getClassName(), SqlStatementStatistics.class))
+                    .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName())
+                    .findFirst()
+                    .orElse("?"));
+            if (callers.size() < MAX_CALLERS) {
+                callers.add(caller);
+            }
+            return caller;
+        }
+
+        SqlStatementStatsDTO toDTO() {
+            SqlStatementStatsDTO dto = new SqlStatementStatsDTO();
+            dto.setStatement(shape);
+            dto.setCount(count.sum());
+            dto.setErrors(errors.sum());
+            dto.setRows(rows.sum());
+            dto.setTotalMillis(totalNanos.sum() / 1_000_000.0);
+            dto.setAvgMillis(avgNanos() / 1_000_000.0);
+            dto.setMaxMillis(maxNanos.get() / 1_000_000.0);
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKETS_MILLIS.length; i++) {
+                buckets.put(BUCKETS_MILLIS[i] + "ms", histogram[i].sum());
+            }
+            buckets.put("+Inf", histogram[BUCKETS_MILLIS.length].sum());
+            dto.setHistogram(buckets);
+            dto.setSuspectedNPlusOneRequests(nPlusOneRequests.sum());
+            dto.setCallers(List.copyOf(callers));
+            return dto;
+        }
+
+        private static boolean isInternal(String className, Class<?> type) {
+            return className.equals(type.getName()) || className.startsWith(type.getName() + "$");
+        }
+
+        private static String simpleName(String className) {
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+    }
+
+    private record TimerKey(String type, String outcome) {
+    }
+
+    private static final class RequestScope {
+
+        private final String description;
+        private final Map<String, Integer> executions = new LinkedHashMap<>();
+
+        RequestScope(String description) {
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.jdbc;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Delimita cada petición HTTP para que SqlStatementStatistics detecte los N+1 dentro de ella
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SqlStatisticsRequestFilter extends OncePerRequestFilter {
+
+    private final SqlStatementStatistics statistics;
+
+    public SqlStatisticsRequestFilter(SqlStatementStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        statistics.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statistics.endRequest();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/*
+ * Proxies JDK sobre DataSource, Connection, Statement y ResultSet que miden cada
+ * ejecución y cuentan las filas leídas, sin cambiar el comportamiento del driver. Todo
+ * lo demás (incluidos unwrap/isWrapperFor, que usan Hikari y las métricas de Spring
+ * Boot) se delega tal cual.
+ */
+public final class StatisticsDataSource {
+
+    private StatisticsDataSource() {
+    }
+
+    public static DataSource wrap(DataSource dataSource, SqlStatementStatistics statistics) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrapConnection(connection, statistics) : result;
+        });
+    }
+
+    private static Connection wrapConnection(Connection connection, SqlStatementStatistics statistics) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrapStatement(CallableStatement.class, statement, (String) args[0], statistics);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrapStatement(PreparedStatement.class, statement, (String) args[0], statistics);
+            }
+            if (result instanceof Statement statement) {
+                return wrapStatement(Statement.class, statement, null, statistics);
+            }
+            return result;
+        });
+    }
+
+    private static <T extends Statement> T wrapStatement(Class<T> type, T statement, String preparedSql, SqlStatementStatistics statistics) {
+        StatementHandler handler = new StatementHandler(preparedSql, statistics);
+        return proxy(type, statement, handler);
+    }
+
+    private static final class StatementHandler implements TargetHandler {
+
+        private final String preparedSql;
+        private final SqlStatementStatistics statistics;
+        // Statement sin preparar con addBatch(sql): se agrupa por la primera sentencia del lote
+        private String batchSql;
+
+        StatementHandler(String preparedSql, SqlStatementStatistics statistics) {
+            this.preparedSql = preparedSql;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Object handle(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("addBatch".equals(name) && args != null && args.length > 0 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : preparedSql != null ? preparedSql : batchSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invoke(target, method, args);
+            } catch (Throwable e) {
+                statistics.record(sql, System.nanoTime() - start, -1, true);
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            if (name.contains("Batch")) {
+                batchSql = null;
+            }
+
+            SqlStatementStatistics.ShapeStats shape = statistics.record(sql, nanos, rowsAffected(result), false);
+            return result instanceof ResultSet resultSet ? wrapResultSet(resultSet, shape) : result;
+        }
+
+        private static long rowsAffected(Object result) {
+            if (result instanceof Integer rows) {
+                return rows;
+            }
+            if (result instanceof Long rows) {
+                return rows;
+            }
+            if (result instanceof int[] batch) {
+                long rows = 0;
+                for (int count : batch) {
+                    rows += Math.max(count, 0);
+                }
+                return rows;
+            }
+            if (result instanceof long[] batch) {
+                long rows = 0;
+                for (long count : batch) {
+                    rows += Math.max(count, 0);
+                }
+                return rows;
+            }
+            return -1;
+        }
+    }
+
+    // Las filas de un SELECT se cuentan según se leen con next()
+    private static ResultSet wrapResultSet(ResultSet resultSet, SqlStatementStatistics.ShapeStats shape) {
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                shape.addRows(1);
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, TargetHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> invoke(target, method, args);
+                };
+            }
+            return handler.handle(target, method, args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/*
+ * AsyncAppender que, cuando la cola se acerca a su límite (discardingThreshold), solo
+ * descarta DEBUG y TRACE. El de logback descarta también INFO; aquí INFO, WARN y ERROR
+ * nunca se pierden y, con la cola llena, esperan a que haya sitio.
+ */
+public class DebugDroppingAsyncAppender extends AsyncAppender {
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        return event.getLevel().toInt() <= Level.DEBUG_INT;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/*
+ * Deja pasar una de cada sampleRate sentencias del logger de SQL de Hibernate en lugar
+ * de escribirlas todas. Las comprobaciones de nivel (isDebugEnabled, sin mensaje) no se
+ * cuentan: Hibernate pregunta el nivel antes de cada sentencia y, si se contaran, la
+ * muestra no sería 1 de cada N. Las consultas lentas van por otro logger
+ * (org.hibernate.SQL_SLOW) y no se muestrean.
+ */
+public class SqlSamplingTurboFilter extends TurboFilter {
+
+    private String loggerName = "org.hibernate.SQL";
+    private long sampleRate = 100;
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || !loggerName.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % sampleRate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleRate(long sampleRate) {
+        this.sampleRate = Math.max(sampleRate, 1);
+    }
+}
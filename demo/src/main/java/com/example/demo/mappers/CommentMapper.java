@@ -0,0 +1,29 @@
+package com.example.demo.mappers;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.example.demo.dto.CommentDTO;
+import com.example.demo.dto.CommentDetailDTO;
+import com.example.demo.entities.CommentEntity;
+
+/*
+ * Conversión entre CommentEntity y sus DTO, generada por MapStruct en tiempo de compilación.
+ */
+@Mapper(componentModel = "spring")
+public interface CommentMapper {
+
+    CommentDTO toDTO(CommentEntity comment);
+
+    List<CommentDTO> toDTOs(List<CommentEntity> comments);
+
+    CommentDetailDTO toDetailDTO(CommentEntity comment);
+
+    // El id lo asigna la base: uno enviado por el cliente convertiría el save en un merge sobre otra fila
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "query", ignore = true)
+    CommentEntity toEntity(CommentDTO commentDTO);
+}
@@ -0,0 +1,33 @@
+package com.example.demo.mappers;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.dto.QueryDetailDTO;
+import com.example.demo.entities.QueryEntity;
+
+/*
+ * Conversión entre QueryEntity y sus DTO, generada por MapStruct en tiempo de compilación.
+ */
+@Mapper(componentModel = "spring")
+public interface QueryMapper {
+
+    QueryDTO toDTO(QueryEntity query);
+
+    List<QueryDTO> toDTOs(List<QueryEntity> queries);
+
+    QueryDetailDTO toDetailDTO(QueryEntity query);
+
+    List<QueryDetailDTO> toDetailDTOs(List<QueryEntity> queries);
+
+    // El id lo asigna la base: uno enviado por el cliente convertiría el save en un merge sobre otra fila
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "comments", ignore = true)
+    QueryEntity toEntity(QueryDTO queryDTO);
+
+    List<QueryEntity> toEntities(List<QueryDTO> queryDTOs);
+}
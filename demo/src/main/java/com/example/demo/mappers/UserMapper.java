@@ -0,0 +1,30 @@
+package com.example.demo.mappers;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import com.example.demo.dto.UserDTO;
+import com.example.demo.dto.UserDetailDTO;
+import com.example.demo.entities.UserEntity;
+
+/*
+ * Conversión entre UserEntity y sus DTO. La implementación la genera MapStruct en
+ * tiempo de compilación (UserMapperImpl), sin reflexión en cada petición.
+ */
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    UserDTO toDTO(UserEntity user);
+
+    UserDetailDTO toDetailDTO(UserEntity user);
+
+    List<UserDetailDTO> toDetailDTOs(List<UserEntity> users);
+
+    // El id lo asigna la base: uno enviado por el cliente convertiría el save en un merge sobre otra fila
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "queries", ignore = true)
+    UserEntity toEntity(UserDTO userDTO);
+}
@@ -1,9 +1,40 @@
 package com.example.demo.repositories;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import com.example.demo.dto.CommentDTO;
 import com.example.demo.entities.CommentEntity;
 
 @Repository
 public interface CommentRepository extends JpaRepository<CommentEntity,Long> {
+
+    Slice<CommentEntity> findAllBy(Pageable pageable);
+
+    // Proyección directa a DTO por la clave foránea, sin cargar el query ni hidratar entidades
+    @Query("select new com.example.demo.dto.CommentDTO(c.id, c.content) from CommentEntity c where c.query.id = :queryId order by c.id")
+    List<CommentDTO> findDTOsByQueryId(@Param("queryId") Long queryId);
+
+    @EntityGraph(attributePaths = {"user", "query"})
+    Optional<CommentEntity> findWithDetailsById(Long id);
+
+    List<CommentEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Ids a borrar por lotes (ver BulkDeleteService); solo leen el índice de la clave foránea
+    @Query("select c.id from CommentEntity c where c.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select c.id from CommentEntity c where c.query.id = :queryId")
+    List<Long> findIdsByQueryId(@Param("queryId") Long queryId, Pageable pageable);
+
+    // Comentarios de cualquier usuario sobre los queries del usuario
+    @Query("select c.id from CommentEntity c where c.query.id in (select q.id from QueryEntity q where q.user.id = :userId)")
+    List<Long> findIdsByQueryUserId(@Param("userId") Long userId, Pageable pageable);
     
 }
@@ -1,19 +1,58 @@
 package com.example.demo.repositories;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.QueryDTO;
 import com.example.demo.entities.QueryEntity;
 
-import autovalue.shaded.com.google.common.base.Optional;
 import java.util.List;
 
+import jakarta.persistence.QueryHint;
+import java.util.Optional;
+
 
 @Repository
 public interface QueryRepository extends JpaRepository<QueryEntity,Long> {
 
+    // Caché de consultas de Hibernate: se invalida sola en cuanto cambia cualquier fila de query_entity
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<QueryEntity> findByStateTrue();
 
+    // Proyección directa a DTO por la clave foránea, sin cargar el usuario ni hidratar entidades
+    @Query("select new com.example.demo.dto.QueryDTO(q.id, q.content, q.state) from QueryEntity q where q.user.id = :userId order by q.id")
+    List<QueryDTO> findDTOsByUserId(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = {"user", "comments"})
+    Optional<QueryEntity> findWithDetailsById(Long id);
+
+    Page<QueryEntity> findByStateTrue(Pageable pageable);
+
+    Slice<QueryEntity> findSliceByStateTrue(Pageable pageable);
+
+    List<QueryEntity> findByStateTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Dueño (de la clave foránea) y contenido del query, para comprobar permisos e invalidar
+    // sus resultados cacheados sin cargar la entidad
+    @Query("select q.user.id as userId, q.content as content from QueryEntity q where q.id = :id")
+    Optional<OwnerAndContent> findOwnerAndContentById(@Param("id") Long id);
+
+    @Query("select q.id from QueryEntity q where q.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    interface OwnerAndContent {
+        Long getUserId();
+        String getContent();
+    }
+
     
 } 
    
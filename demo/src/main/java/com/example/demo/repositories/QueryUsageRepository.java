@@ -0,0 +1,40 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.QueryUsageEntity;
+
+@Repository
+public interface QueryUsageRepository extends JpaRepository<QueryUsageEntity, Long> {
+
+    Optional<QueryUsageEntity> findByUserIdAndUsageDate(Long userId, LocalDate usageDate);
+
+    boolean existsByUserIdAndUsageDate(Long userId, LocalDate usageDate);
+
+    // Reserva solo si cabe en el límite; devuelve 0 si no cabe o si aún no existe la fila del día
+    @Modifying
+    @Query("update QueryUsageEntity u set u.reservedBytes = u.reservedBytes + :bytes "
+            + "where u.user.id = :userId and u.usageDate = :usageDate and u.bytesBilled + u.reservedBytes + :bytes <= :dailyLimit")
+    int reserve(@Param("userId") Long userId, @Param("usageDate") LocalDate usageDate, @Param("bytes") long bytes,
+            @Param("dailyLimit") long dailyLimit);
+
+    // Suma en la propia base para no perder consumos de queries concurrentes del mismo usuario
+    @Modifying
+    @Query("update QueryUsageEntity u set u.bytesBilled = u.bytesBilled + :bytesBilled, u.reservedBytes = u.reservedBytes - :reservedBytes, "
+            + "u.queryCount = u.queryCount + 1 where u.user.id = :userId and u.usageDate = :usageDate")
+    int settleUsage(@Param("userId") Long userId, @Param("usageDate") LocalDate usageDate, @Param("bytesBilled") long bytesBilled,
+            @Param("reservedBytes") long reservedBytes);
+
+    @Modifying
+    @Query("update QueryUsageEntity u set u.reservedBytes = u.reservedBytes - :reservedBytes "
+            + "where u.user.id = :userId and u.usageDate = :usageDate")
+    int releaseReservation(@Param("userId") Long userId, @Param("usageDate") LocalDate usageDate,
+            @Param("reservedBytes") long reservedBytes);
+}
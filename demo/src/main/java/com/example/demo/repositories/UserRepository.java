@@ -1,14 +1,47 @@
 package com.example.demo.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.UserEntity;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity,Long> {
 
     Optional<UserEntity> findByEmail(String email);
+
+    // Los dos bags (comments y queries) no se pueden traer en un mismo join; se cargan
+    // en dos consultas que completan las mismas entidades del contexto de persistencia
+    @EntityGraph(attributePaths = "comments")
+    @Query("select u from UserEntity u")
+    List<UserEntity> findAllWithComments();
+
+    @EntityGraph(attributePaths = "queries")
+    @Query("select u from UserEntity u")
+    List<UserEntity> findAllWithQueries();
+
+    @EntityGraph(attributePaths = "comments")
+    Optional<UserEntity> findWithCommentsById(Long id);
+
+    @EntityGraph(attributePaths = "comments")
+    @Query("select u from UserEntity u where u in :users")
+    List<UserEntity> fetchComments(@Param("users") List<UserEntity> users);
+
+    @EntityGraph(attributePaths = "queries")
+    @Query("select u from UserEntity u where u in :users")
+    List<UserEntity> fetchQueries(@Param("users") List<UserEntity> users);
+
+    // Página sin COUNT(*): solo se consulta una fila extra para saber si hay más
+    Slice<UserEntity> findAllBy(Pageable pageable);
+
+    // Paginación por clave (seek): WHERE id > :afterId ORDER BY id
+    List<UserEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
     
 }
@@ -0,0 +1,13 @@
+package com.example.demo.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Principal de las peticiones con token: sale de los claims, sin consultar la base
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser {
+
+    private final Long id;
+    private final String email;
+}
@@ -0,0 +1,145 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.UserEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Tokens firmados (JWT compacto con HS256) que emite el login. Llevan el id del usuario
+ * en "sub", su email y la caducidad, de modo que cada petición se autentica verificando
+ * la firma, sin ir a MySQL. Solo se acepta la cabecera que genera este servicio, así que
+ * un token con otro "alg" (por ejemplo "none") se rechaza.
+ *
+ * Sin security.token.secret se usa una clave aleatoria: los tokens dejan de valer al
+ * reiniciar y no sirven entre instancias.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public TokenService(@Value("${security.token.secret:}") String secret,
+            @Value("${security.token.ttl-seconds:3600}") long ttlSeconds) {
+        this(secret, ttlSeconds, Clock.systemUTC());
+    }
+
+    TokenService(String secret, long ttlSeconds, Clock clock) {
+        this.key = new SecretKeySpec(secretBytes(secret), HMAC);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.clock = clock;
+    }
+
+    public String issue(UserEntity user) {
+        Instant now = clock.instant();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(user.getId()));
+        claims.put("email", user.getEmail());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(ttl).getEpochSecond());
+
+        String payload;
+        try {
+            payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        String unsigned = HEADER + "." + payload;
+        return unsigned + "." + ENCODER.encodeToString(sign(unsigned));
+    }
+
+    public long getTtlSeconds() {
+        return ttl.getSeconds();
+    }
+
+    // Vacío si el token está mal formado, la firma no coincide o ha caducado
+    public Optional<AuthenticatedUser> verify(String token) {
+        String[] parts = token == null ? new String[0] : token.split("\\.", -1);
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(parts[2]);
+            if (!MessageDigest.isEqual(signature, sign(parts[0] + "." + parts[1]))) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(parts[1]));
+            if (!claims.path("exp").canConvertToLong() || clock.instant().getEpochSecond() >= claims.get("exp").asLong()) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.valueOf(claims.path("sub").asText()), claims.path("email").asText(null)));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Firma (Base64 URL) de otros datos que salen al cliente, como los tokens de paginación
+    public String signature(String content) {
+        return ENCODER.encodeToString(sign(content));
+    }
+
+    public boolean hasValidSignature(String content, String signature) {
+        try {
+            return MessageDigest.isEqual(DECODER.decode(signature), sign(content));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            logger.warn("security.token.secret no está configurado; se usa una clave aleatoria y los tokens no sobreviven a un reinicio");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < 32) {
+            throw new IllegalStateException("security.token.secret debe tener al menos 256 bits (32 bytes en Base64).");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.services;
+
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+import com.google.cloud.bigquery.TableResult;
+
+/*
+ * Punto de acceso a BigQuery usado por los servicios. La implementación por defecto
+ * (GoogleBigQueryClient) mantiene un único cliente autenticado durante toda la vida de
+ * la aplicación; los tests o un entorno local pueden registrar su propio bean.
+ */
+public interface BigQueryClient {
+
+    TableResult query(QueryJobConfiguration configuration) throws InterruptedException;
+
+    // Ejecuta el query con un id de job conocido, para poder consultarlo o cancelarlo desde otro hilo
+    TableResult query(QueryJobConfiguration configuration, JobId jobId, BigQuery.QueryResultsOption... options) throws InterruptedException;
+
+    // Lee una página de resultados de un job ya terminado (pageSize / pageToken)
+    TableResult getQueryResults(JobId jobId, BigQuery.QueryResultsOption... options) throws InterruptedException;
+
+    boolean cancel(JobId jobId);
+
+    // Valida el query y estima los bytes que procesaría sin ejecutarlo (no se factura)
+    QueryStatistics dryRun(QueryJobConfiguration configuration) throws InterruptedException;
+
+    // Estadísticas de un job (bytes facturados, acierto de caché, plan de ejecución...); null si ya no existe
+    QueryStatistics getStatistics(JobId jobId);
+
+}
@@ -0,0 +1,107 @@
+package com.example.demo.services;
+
+import org.springframework.stereotype.Component;
+
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/*
+ * Métricas propias del acceso a BigQuery: latencia y filas por operación, errores por
+ * tipo, bytes facturados/procesados por job y aciertos de la caché de resultados.
+ * Se exponen en /actuator/prometheus junto con las métricas HTTP, Hikari e Hibernate.
+ */
+@Component
+public class BigQueryMetrics {
+
+    public static final String EXECUTE = "execute";
+    public static final String PAGE = "page";
+    public static final String JOB = "job";
+
+    private final MeterRegistry registry;
+    private final Counter bytesBilled;
+    private final Counter bytesProcessed;
+    private final Counter bigQueryCacheHits;
+
+    public BigQueryMetrics(MeterRegistry registry, QueryResultCache queryResultCache) {
+        this.registry = registry;
+        this.bytesBilled = Counter.builder("bigquery.query.bytes.billed")
+                .baseUnit("bytes")
+                .description("Bytes facturados por los jobs de BigQuery")
+                .register(registry);
+        this.bytesProcessed = Counter.builder("bigquery.query.bytes.processed")
+                .baseUnit("bytes")
+                .description("Bytes procesados por los jobs de BigQuery")
+                .register(registry);
+        this.bigQueryCacheHits = Counter.builder("bigquery.query.cache.hits")
+                .description("Jobs servidos desde la caché propia de BigQuery")
+                .register(registry);
+        GuavaCacheMetrics.monitor(registry, queryResultCache.getCache(), "bigquery.results");
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordSuccess(Timer.Sample sample, String operation) {
+        sample.stop(timer(operation, "success", "none"));
+    }
+
+    public void recordRows(String operation, long rows) {
+        DistributionSummary.builder("bigquery.query.rows")
+                .description("Filas devueltas por query o por página")
+                .tag("operation", operation)
+                .register(registry)
+                .record(rows);
+    }
+
+    public void recordFailure(Timer.Sample sample, String operation, Throwable error) {
+        String type = errorType(error);
+        sample.stop(timer(operation, "error", type));
+        Counter.builder("bigquery.query.errors")
+                .description("Errores al ejecutar queries en BigQuery")
+                .tag("operation", operation)
+                .tag("type", type)
+                .register(registry)
+                .increment();
+    }
+
+    // Estadísticas del job ya terminado; solo están disponibles en las ejecuciones con JobId
+    public void recordStatistics(QueryStatistics statistics) {
+        if (statistics == null) {
+            return;
+        }
+        if (statistics.getTotalBytesBilled() != null) {
+            bytesBilled.increment(statistics.getTotalBytesBilled());
+        }
+        if (statistics.getTotalBytesProcessed() != null) {
+            bytesProcessed.increment(statistics.getTotalBytesProcessed());
+        }
+        if (Boolean.TRUE.equals(statistics.getCacheHit())) {
+            bigQueryCacheHits.increment();
+        }
+    }
+
+    private Timer timer(String operation, String outcome, String exception) {
+        return Timer.builder("bigquery.query")
+                .description("Latencia de las llamadas a BigQuery")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // El "reason" de BigQuery (invalidQuery, quotaExceeded, ...) es más útil que la clase
+    static String errorType(Throwable error) {
+        if (error instanceof BigQueryException bigQueryException && bigQueryException.getReason() != null) {
+            return bigQueryException.getReason();
+        }
+        return error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.repositories.CommentRepository;
+import com.example.demo.repositories.QueryRepository;
+import com.example.demo.repositories.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Borrado de usuarios y queries con DELETE por conjuntos en lugar de CascadeType.REMOVE,
+ * que carga cada hijo y lanza un DELETE por fila. Se borra en orden de dependencias
+ * (comentarios, queries, usuario) y por lotes de ids, cada uno en su propia transacción,
+ * para acotar el tiempo de bloqueo y el undo log. Si falla a mitad, lo ya borrado queda
+ * borrado pero el padre sigue existiendo, así que repetir la operación la completa.
+ *
+ * Los DELETE masivos de JPQL invalidan las regiones de la caché de segundo nivel de la
+ * entidad afectada, así que la caché no devuelve filas borradas.
+ */
+@Service
+public class BulkDeleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    private final UserRepository userRepository;
+    private final QueryRepository queryRepository;
+    private final CommentRepository commentRepository;
+    private final PublicQueryFeed publicQueryFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    // Un solo hilo: los borrados grandes se hacen de uno en uno para no saturar la base
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BulkDeleteService(UserRepository userRepository, QueryRepository queryRepository, CommentRepository commentRepository,
+            PublicQueryFeed publicQueryFeed, PlatformTransactionManager transactionManager,
+            @Value("${bulk-delete.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.queryRepository = queryRepository;
+        this.commentRepository = commentRepository;
+        this.publicQueryFeed = publicQueryFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // El llamante comprueba antes que el usuario existe
+    public void deleteUser(Long userId) {
+        deleteCommentsInChunks(page -> commentRepository.findIdsByUserId(userId, page));
+        deleteCommentsInChunks(page -> commentRepository.findIdsByQueryUserId(userId, page));
+        deleteInChunks(page -> queryRepository.findIdsByUserId(userId, page), ids -> {
+            queryRepository.deleteAllByIdInBatch(ids);
+            publicQueryFeed.queriesRemoved(ids);
+        });
+        // Su consumo de BigQuery (query_usage_entity) lo borra la base en cascada
+        transactionTemplate.executeWithoutResult(status -> userRepository.deleteAllByIdInBatch(List.of(userId)));
+    }
+
+    public CompletableFuture<Void> deleteUserAsync(Long userId) {
+        return CompletableFuture.runAsync(() -> deleteUser(userId), executor)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.error("Falló el borrado en segundo plano del usuario {}", userId, error);
+                    }
+                });
+    }
+
+    public void deleteQuery(Long queryId) {
+        deleteCommentsInChunks(page -> commentRepository.findIdsByQueryId(queryId, page));
+        transactionTemplate.executeWithoutResult(status -> {
+            queryRepository.deleteAllByIdInBatch(List.of(queryId));
+            publicQueryFeed.queryRemoved(queryId);
+        });
+    }
+
+    private void deleteCommentsInChunks(Function<Pageable, List<Long>> nextIds) {
+        deleteInChunks(nextIds, commentRepository::deleteAllByIdInBatch);
+    }
+
+    // Cada vuelta lee el siguiente lote de ids y lo borra en la misma transacción, hasta que no quedan
+    private void deleteInChunks(Function<Pageable, List<Long>> nextIds, ChunkDelete delete) {
+        Pageable firstChunk = PageRequest.of(0, chunkSize);
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                List<Long> ids = nextIds.apply(firstChunk);
+                if (ids.isEmpty()) {
+                    return false;
+                }
+                delete.delete(ids);
+                return true;
+            }));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface ChunkDelete {
+        void delete(List<Long> ids);
+    }
+}
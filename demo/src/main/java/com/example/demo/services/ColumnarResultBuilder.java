@@ -0,0 +1,150 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.demo.dto.ColumnDTO;
+import com.example.demo.dto.ColumnarResultDTO;
+import com.google.cloud.bigquery.Field;
+import com.google.cloud.bigquery.FieldList;
+import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.StandardSQLTypeName;
+
+/*
+ * Acumula filas de BigQuery en arreglos primitivos por columna. Los INT64, FLOAT64 y
+ * BOOL se guardan sin boxing; el resto de tipos (incluidos REPEATED y STRUCT) como texto.
+ */
+class ColumnarResultBuilder {
+
+    private static final int MAX_PREALLOCATED_ROWS = 1 << 20;
+
+    private final Column[] columns;
+    private int rowCount;
+
+    ColumnarResultBuilder(FieldList fields, long expectedRows) {
+        int capacity = (int) Math.max(16, Math.min(expectedRows, MAX_PREALLOCATED_ROWS));
+        columns = new Column[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new Column(fields.get(i), capacity);
+        }
+    }
+
+    void add(FieldValueList row) {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(rowCount, row.get(i));
+        }
+        rowCount++;
+    }
+
+    ColumnarResultDTO build() {
+        List<ColumnDTO> result = new ArrayList<>(columns.length);
+        for (Column column : columns) {
+            result.add(column.build(rowCount));
+        }
+        ColumnarResultDTO dto = new ColumnarResultDTO();
+        dto.setRowCount(rowCount);
+        dto.setColumns(result);
+        return dto;
+    }
+
+    private enum Kind { LONG, DOUBLE, BOOLEAN, STRING }
+
+    private static final class Column {
+
+        private final String name;
+        private final String type;
+        private final Kind kind;
+        private long[] longs;
+        private double[] doubles;
+        private boolean[] booleans;
+        private String[] strings;
+        private int[] nulls;
+
+        Column(Field field, int capacity) {
+            this.name = field.getName();
+            StandardSQLTypeName standardType = field.getType().getStandardType();
+            boolean scalar = field.getMode() != Field.Mode.REPEATED;
+            this.type = field.getMode() == Field.Mode.REPEATED ? "ARRAY<" + standardType + ">" : standardType.name();
+            if (scalar && standardType == StandardSQLTypeName.INT64) {
+                kind = Kind.LONG;
+                longs = new long[capacity];
+            } else if (scalar && standardType == StandardSQLTypeName.FLOAT64) {
+                kind = Kind.DOUBLE;
+                doubles = new double[capacity];
+            } else if (scalar && standardType == StandardSQLTypeName.BOOL) {
+                kind = Kind.BOOLEAN;
+                booleans = new boolean[capacity];
+            } else {
+                kind = Kind.STRING;
+                strings = new String[capacity];
+            }
+        }
+
+        void add(int index, FieldValue value) {
+            ensureCapacity(index + 1);
+            if (value.isNull()) {
+                markNull(index);
+                return;
+            }
+            switch (kind) {
+                case LONG -> longs[index] = value.getLongValue();
+                case DOUBLE -> doubles[index] = value.getDoubleValue();
+                case BOOLEAN -> booleans[index] = value.getBooleanValue();
+                default -> strings[index] = value.getAttribute() == FieldValue.Attribute.PRIMITIVE
+                        ? value.getStringValue() : value.getValue().toString();
+            }
+        }
+
+        private void markNull(int index) {
+            int word = index >>> 5;
+            if (nulls == null) {
+                nulls = new int[capacity() + 31 >>> 5];
+            } else if (word >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, capacity() + 31 >>> 5);
+            }
+            nulls[word] |= 1 << (index & 31);
+        }
+
+        private int capacity() {
+            return switch (kind) {
+                case LONG -> longs.length;
+                case DOUBLE -> doubles.length;
+                case BOOLEAN -> booleans.length;
+                default -> strings.length;
+            };
+        }
+
+        private void ensureCapacity(int size) {
+            int capacity = capacity();
+            if (size <= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(size, capacity + (capacity >> 1));
+            switch (kind) {
+                case LONG -> longs = Arrays.copyOf(longs, newCapacity);
+                case DOUBLE -> doubles = Arrays.copyOf(doubles, newCapacity);
+                case BOOLEAN -> booleans = Arrays.copyOf(booleans, newCapacity);
+                default -> strings = Arrays.copyOf(strings, newCapacity);
+            }
+        }
+
+        ColumnDTO build(int rowCount) {
+            ColumnDTO dto = new ColumnDTO();
+            dto.setName(name);
+            dto.setType(type);
+            dto.setValues(switch (kind) {
+                case LONG -> longs.length == rowCount ? longs : Arrays.copyOf(longs, rowCount);
+                case DOUBLE -> doubles.length == rowCount ? doubles : Arrays.copyOf(doubles, rowCount);
+                case BOOLEAN -> booleans.length == rowCount ? booleans : Arrays.copyOf(booleans, rowCount);
+                default -> strings.length == rowCount ? strings : Arrays.copyOf(strings, rowCount);
+            });
+            if (nulls != null) {
+                int words = rowCount + 31 >>> 5;
+                dto.setNulls(nulls.length == words ? nulls : Arrays.copyOf(nulls, words));
+            }
+            return dto;
+        }
+    }
+}
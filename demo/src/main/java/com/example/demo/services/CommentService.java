@@ -3,6 +3,7 @@ package com.example.demo.services;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.dto.CommentBatchItemDTO;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
@@ -14,9 +15,19 @@ import com.example.demo.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import com.example.demo.repositories.QueryRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import com.example.demo.entities.QueryEntity;
 
@@ -34,6 +45,8 @@ public class CommentService {
     @Autowired
     private QueryRepository queryRepository;  // Asumiendo que tienes un QueryRepository
 
+    static final int MAX_BATCH_SIZE = 1000;
+
     @Transactional
     public CommentEntity createComment(Long userId, Long queryId, CommentEntity commentEntity) throws IllegalOperationException, EntityNotFoundException{
         if (commentEntity.getContent() == null || commentEntity.getContent().trim().isEmpty()) {
@@ -55,10 +68,61 @@ public class CommentService {
         return commentRepository.save(commentEntity);
     }
 
+    /*
+     * Crea todos los comentarios en una sola transacción: los queries referenciados se
+     * resuelven con un único IN y los INSERT salen en lotes JDBC. El autor de todos es el
+     * usuario autenticado (userId viene del token), nunca uno indicado en el cuerpo.
+     */
+    @Transactional
+    public List<CommentEntity> createComments(Long userId, List<CommentBatchItemDTO> items) throws IllegalOperationException, EntityNotFoundException {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalOperationException("La lista de comentarios no puede estar vacía.");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalOperationException("No se pueden crear más de " + MAX_BATCH_SIZE + " comentarios por petición.");
+        }
+
+        Set<Long> queryIds = new HashSet<>();
+        for (CommentBatchItemDTO item : items) {
+            if (item.getContent() == null || item.getContent().trim().isEmpty()) {
+                throw new IllegalOperationException("El comentario no puede estar vacío.");
+            }
+            if (item.getQueryId() == null) {
+                throw new IllegalOperationException("Cada comentario debe indicar queryId.");
+            }
+            queryIds.add(item.getQueryId());
+        }
+
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
+        Map<Long, QueryEntity> queries = new HashMap<>();
+        queryRepository.findAllById(queryIds).forEach(query -> queries.put(query.getId(), query));
+        if (queries.size() != queryIds.size()) {
+            throw new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND);
+        }
+
+        List<CommentEntity> comments = new ArrayList<>(items.size());
+        for (CommentBatchItemDTO item : items) {
+            QueryEntity query = queries.get(item.getQueryId());
+
+            CommentEntity comment = new CommentEntity();
+            comment.setContent(item.getContent());
+            user.getComments().add(comment);
+            comment.setUser(user);
+            query.getComments().add(comment);
+            comment.setQuery(query);
+            comments.add(comment);
+        }
+
+        return commentRepository.saveAll(comments);
+    }
+
+    // userId viene del token: solo el autor del comentario puede modificarlo o borrarlo
     @Transactional
-    public CommentEntity updateComment(Long commentId, CommentEntity updatedComment) throws IllegalOperationException, EntityNotFoundException{
+    public CommentEntity updateComment(Long userId, Long commentId, CommentEntity updatedComment) throws IllegalOperationException, EntityNotFoundException{
 
         CommentEntity existingComment = commentRepository.findById(commentId).orElseThrow(() -> new EntityNotFoundException(ErrorMessage.COMMENT_NOT_FOUND));
+        checkAuthor(existingComment, userId);
 
         if (updatedComment.getContent() != null && !updatedComment.getContent().trim().isEmpty()) {
             existingComment.setContent(updatedComment.getContent());
@@ -75,15 +139,42 @@ public class CommentService {
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.COMMENT_NOT_FOUND));
     }
 
+    @Transactional()
+    public CommentEntity getCommentWithDetails(Long commentId) throws EntityNotFoundException {
+        return commentRepository.findWithDetailsById(commentId)
+                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.COMMENT_NOT_FOUND));
+    }
+
     @Transactional()
     public List<CommentEntity> getAllComments() {
         return commentRepository.findAll();
     }
 
+    @Transactional()
+    public Slice<CommentEntity> getCommentsPage(Pageable pageable, boolean withTotal) {
+        return withTotal ? commentRepository.findAll(pageable) : commentRepository.findAllBy(pageable);
+    }
+
+    @Transactional()
+    public Slice<CommentEntity> getCommentsAfter(Long afterId, int limit) {
+        // Se pide una fila de más para saber si existe una página siguiente
+        List<CommentEntity> rows = commentRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit + 1));
+        boolean hasNext = rows.size() > limit;
+        return new SliceImpl<>(hasNext ? rows.subList(0, limit) : rows, PageRequest.of(0, limit), hasNext);
+    }
+
     @Transactional
-    public void deleteComment(Long commentId) throws EntityNotFoundException {
+    public void deleteComment(Long userId, Long commentId) throws EntityNotFoundException, IllegalOperationException {
         CommentEntity comment = commentRepository.findById(commentId).orElseThrow(() -> new EntityNotFoundException("Comentario no encontrado."));
+        checkAuthor(comment, userId);
         commentRepository.delete(comment);
     }
+
+    // getUser().getId() lee la clave foránea del proxy, sin cargar el usuario
+    private void checkAuthor(CommentEntity comment, Long userId) throws IllegalOperationException {
+        if (comment.getUser() == null || !Objects.equals(comment.getUser().getId(), userId)) {
+            throw new IllegalOperationException("El comentario no pertenece al usuario especificado.");
+        }
+    }
 }
 
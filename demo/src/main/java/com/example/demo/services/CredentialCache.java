@@ -0,0 +1,78 @@
+package com.example.demo.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/*
+ * Caché corta de credenciales ya verificadas, para que los logins repetidos del mismo
+ * usuario no paguen otra vez el coste del hash. Por email se guarda un HMAC de la
+ * contraseña y del hash almacenado con una clave aleatoria que solo vive en memoria:
+ * no se guarda la contraseña y, si cambia el hash (cambio de contraseña o rehash), la
+ * entrada deja de coincidir sola. Los intentos fallidos nunca se cachean.
+ */
+@Component
+public class CredentialCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Cache<String, byte[]> cache;
+
+    public CredentialCache(@Value("${security.login-cache.enabled:true}") boolean enabled,
+            @Value("${security.login-cache.max-entries:10000}") long maxEntries,
+            @Value("${security.login-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.enabled = enabled;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC);
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public boolean isVerified(String email, String rawPassword, String storedHash) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] cached = cache.getIfPresent(email);
+        return cached != null && MessageDigest.isEqual(cached, fingerprint(rawPassword, storedHash));
+    }
+
+    public void markVerified(String email, String rawPassword, String storedHash) {
+        if (enabled) {
+            cache.put(email, fingerprint(rawPassword, storedHash));
+        }
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    private byte[] fingerprint(String rawPassword, String storedHash) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(rawPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(storedHash.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
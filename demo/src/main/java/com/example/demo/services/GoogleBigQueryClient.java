@@ -0,0 +1,152 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.http.HttpTransportOptions;
+import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.BigQueryOptions;
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobInfo;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+import com.google.cloud.bigquery.TableResult;
+
+/*
+ * Cliente de BigQuery de larga vida. Las credenciales se leen una sola vez y el
+ * servicio (con su transporte HTTP) se construye en el primer uso y se comparte entre
+ * peticiones; GoogleCredentials cachea el token de acceso y lo refresca al expirar.
+ */
+public class GoogleBigQueryClient implements BigQueryClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleBigQueryClient.class);
+
+    private static final List<String> SCOPES = List.of("https://www.googleapis.com/auth/cloud-platform");
+
+    private final Resource credentialsLocation;
+    private final String projectId;
+    private final String location;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final BigQueryMetrics metrics;
+
+    // Lock en lugar de synchronized: la primera inicialización lee las credenciales y con
+    // hilos virtuales un bloque synchronized dejaría anclado el hilo portador durante la E/S
+    private final ReentrantLock initLock = new ReentrantLock();
+
+    private volatile BigQuery bigQuery;
+
+    public GoogleBigQueryClient(Resource credentialsLocation, String projectId, String location, int connectTimeoutMs, int readTimeoutMs,
+            BigQueryMetrics metrics) {
+        this.credentialsLocation = credentialsLocation;
+        this.projectId = projectId;
+        this.location = location;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public TableResult query(QueryJobConfiguration configuration) throws InterruptedException {
+        // Siempre con un job explícito: la vía rápida de BigQuery.query no expone las estadísticas (bytes facturados)
+        return query(configuration, JobId.of(UUID.randomUUID().toString()));
+    }
+
+    @Override
+    public TableResult query(QueryJobConfiguration configuration, JobId jobId, BigQuery.QueryResultsOption... options) throws InterruptedException {
+        Job job = getService().create(JobInfo.of(withLocation(jobId), configuration)).waitFor();
+        if (job == null) {
+            throw new BigQueryException(404, "El job " + jobId.getJob() + " ya no existe en BigQuery");
+        }
+        if (job.getStatus().getError() != null) {
+            throw new BigQueryException(job.getStatus().getExecutionErrors());
+        }
+        if (job.getStatistics() instanceof QueryStatistics statistics) {
+            metrics.recordStatistics(statistics);
+        }
+        return job.getQueryResults(options);
+    }
+
+    @Override
+    public TableResult getQueryResults(JobId jobId, BigQuery.QueryResultsOption... options) throws InterruptedException {
+        Job job = getService().getJob(withLocation(jobId));
+        if (job == null) {
+            throw new BigQueryException(404, "El job " + jobId.getJob() + " ya no existe en BigQuery");
+        }
+        return job.getQueryResults(options);
+    }
+
+    @Override
+    public boolean cancel(JobId jobId) {
+        return getService().cancel(withLocation(jobId));
+    }
+
+    @Override
+    public QueryStatistics dryRun(QueryJobConfiguration configuration) {
+        QueryJobConfiguration dryRun = configuration.toBuilder().setDryRun(true).build();
+        // Un dry run no crea el job: la respuesta ya trae la estimación
+        Job job = getService().create(JobInfo.of(withLocation(JobId.of(UUID.randomUUID().toString())), dryRun));
+        return job.getStatistics();
+    }
+
+    @Override
+    public QueryStatistics getStatistics(JobId jobId) {
+        Job job = getService().getJob(withLocation(jobId));
+        return job == null ? null : job.getStatistics();
+    }
+
+    // Los jobs fuera de US/EU solo se pueden consultar indicando su región
+    private JobId withLocation(JobId jobId) {
+        if (jobId.getLocation() != null || location == null || location.isBlank()) {
+            return jobId;
+        }
+        return jobId.toBuilder().setLocation(location).build();
+    }
+
+    BigQuery getService() {
+        BigQuery service = bigQuery;
+        if (service == null) {
+            initLock.lock();
+            try {
+                service = bigQuery;
+                if (service == null) {
+                    service = createService();
+                    bigQuery = service;
+                }
+            } finally {
+                initLock.unlock();
+            }
+        }
+        return service;
+    }
+
+    private BigQuery createService() {
+        logger.info("Inicializando cliente de BigQuery con credenciales de {}", credentialsLocation);
+        try (InputStream in = credentialsLocation.getInputStream()) {
+            GoogleCredentials credentials = GoogleCredentials.fromStream(in).createScoped(SCOPES);
+            BigQueryOptions.Builder builder = BigQueryOptions.newBuilder()
+                    .setCredentials(credentials)
+                    .setTransportOptions(HttpTransportOptions.newBuilder()
+                            .setConnectTimeout(connectTimeoutMs)
+                            .setReadTimeout(readTimeoutMs)
+                            .build());
+            if (projectId != null && !projectId.isBlank()) {
+                builder.setProjectId(projectId);
+            }
+            return builder.build().getService();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron cargar las credenciales de BigQuery desde " + credentialsLocation, e);
+        }
+    }
+}
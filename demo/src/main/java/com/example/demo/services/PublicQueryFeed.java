@@ -0,0 +1,168 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.mappers.QueryMapper;
+import com.example.demo.repositories.QueryRepository;
+
+/*
+ * Vista materializada de los queries públicos (state = true) ya convertidos a DTO.
+ * Las lecturas devuelven la instantánea actual sin bloquear; cada cambio construye una
+ * copia nueva y la publica de golpe (copy-on-write). Los servicios notifican los cambios
+ * al confirmar su transacción, y la vista se recarga entera de la base al cumplir el
+ * periodo de refresco para recoger escrituras hechas fuera de esta instancia.
+ */
+@Component
+public class PublicQueryFeed {
+
+    private final QueryRepository queryRepository;
+    private final QueryMapper queryMapper;
+    private final Duration refreshInterval;
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+    private long version;
+
+    public PublicQueryFeed(QueryRepository queryRepository, QueryMapper queryMapper,
+            @Value("${queries.feed.refresh-seconds:300}") long refreshSeconds) {
+        this.queryRepository = queryRepository;
+        this.queryMapper = queryMapper;
+        this.refreshInterval = Duration.ofSeconds(refreshSeconds);
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !isExpired(current)) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = snapshot;
+            if (current == null || isExpired(current)) {
+                TreeMap<Long, QueryDTO> queries = new TreeMap<>();
+                for (QueryEntity query : queryRepository.findByStateTrue()) {
+                    queries.put(query.getId(), queryMapper.toDTO(query));
+                }
+                current = publish(queries, System.nanoTime());
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void queryChanged(QueryEntity query) {
+        queriesChanged(List.of(query));
+    }
+
+    // Alta o modificación: entran los públicos y salen los que han dejado de serlo, en una sola copia
+    public void queriesChanged(Collection<QueryEntity> queries) {
+        List<QueryDTO> dtos = queryMapper.toDTOs(List.copyOf(queries));
+        afterCommit(() -> apply(index -> {
+            boolean changed = false;
+            for (QueryDTO dto : dtos) {
+                if (Boolean.TRUE.equals(dto.getState())) {
+                    index.put(dto.getId(), dto);
+                    changed = true;
+                } else {
+                    changed |= index.remove(dto.getId()) != null;
+                }
+            }
+            return changed;
+        }));
+    }
+
+    public void queriesRemoved(Collection<Long> queryIds) {
+        List<Long> ids = List.copyOf(queryIds);
+        afterCommit(() -> apply(queries -> queries.keySet().removeAll(ids)));
+    }
+
+    public void queryRemoved(Long queryId) {
+        queriesRemoved(List.of(queryId));
+    }
+
+    private void apply(Mutation mutation) {
+        lock.lock();
+        try {
+            // Sin instantánea no hay nada que actualizar: la primera lectura la cargará completa
+            if (snapshot == null) {
+                return;
+            }
+            TreeMap<Long, QueryDTO> queries = new TreeMap<>(snapshot.index);
+            if (mutation.apply(queries)) {
+                publish(queries, snapshot.loadedAt);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Los cambios incrementales conservan el instante de la última carga completa
+    private Snapshot publish(TreeMap<Long, QueryDTO> queries, long loadedAt) {
+        version++;
+        Snapshot next = new Snapshot(Collections.unmodifiableList(new ArrayList<>(queries.values())), queries,
+                "\"" + epoch + "-" + version + "\"", loadedAt);
+        snapshot = next;
+        return next;
+    }
+
+    private boolean isExpired(Snapshot current) {
+        return System.nanoTime() - current.loadedAt >= refreshInterval.toNanos();
+    }
+
+    // Los cambios de una transacción que acaba en rollback no deben llegar a la vista
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Mutation {
+        boolean apply(TreeMap<Long, QueryDTO> queries);
+    }
+
+    public static final class Snapshot {
+
+        private final List<QueryDTO> queries;
+        private final TreeMap<Long, QueryDTO> index;
+        private final String etag;
+        private final long loadedAt;
+
+        private Snapshot(List<QueryDTO> queries, TreeMap<Long, QueryDTO> index, String etag, long loadedAt) {
+            this.queries = queries;
+            this.index = index;
+            this.etag = etag;
+            this.loadedAt = loadedAt;
+        }
+
+        public List<QueryDTO> getQueries() {
+            return queries;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.CommentDTO;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.ErrorMessage;
 import com.example.demo.exceptions.IllegalOperationException;
@@ -12,6 +14,7 @@ import org.springframework.stereotype.Service;
 
 import jakarta.transaction.Transactional;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class QueryCommentService {
@@ -22,8 +25,9 @@ public class QueryCommentService {
     @Autowired
     private CommentRepository commentRepository;
 
+    // userId viene del token: solo el autor puede mover su comentario a otro query
     @Transactional
-    public CommentEntity addCommentToQuery(Long queryId, Long commentId) throws EntityNotFoundException, IllegalOperationException {
+    public CommentEntity addCommentToQuery(Long userId, Long queryId, Long commentId) throws EntityNotFoundException, IllegalOperationException {
         
         CommentEntity comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.COMMENT_NOT_FOUND));
@@ -35,6 +39,10 @@ public class QueryCommentService {
             throw new IllegalOperationException("El contenido del comentario no puede estar vacío.");
         }
 
+        if (!isOwnedBy(comment.getUser(), userId)) {
+            throw new IllegalOperationException("El comentario no pertenece al usuario especificado.");
+        }
+
         comment.setQuery(query);
         query.getComments().add(comment);
 
@@ -43,8 +51,9 @@ public class QueryCommentService {
         return commentRepository.save(comment);
     }
 
+    // Puede quitarlo el autor del comentario o el dueño del query
     @Transactional
-    public void removeCommentFromQuery(Long queryId, Long commentId) throws EntityNotFoundException, IllegalOperationException {
+    public void removeCommentFromQuery(Long userId, Long queryId, Long commentId) throws EntityNotFoundException, IllegalOperationException {
     QueryEntity query = queryRepository.findById(queryId)
             .orElseThrow(() -> new EntityNotFoundException("Query no encontrado."));
     
@@ -55,10 +64,19 @@ public class QueryCommentService {
         throw new IllegalOperationException("El comentario no pertenece al query especificado.");
     }
 
+    if (!isOwnedBy(comment.getUser(), userId) && !isOwnedBy(query.getUser(), userId)) {
+        throw new IllegalOperationException("El comentario no pertenece al usuario especificado.");
+    }
+
     query.getComments().remove(comment); // Actualiza la lista de comentarios en memoria
     commentRepository.delete(comment); // Elimina el comentario de la base de datos
 }
 
+    // Compara la clave foránea del proxy con el id del token, sin cargar el usuario
+    private static boolean isOwnedBy(UserEntity owner, Long userId) {
+        return owner != null && Objects.equals(owner.getId(), userId);
+    }
+
     @Transactional
     public List<CommentEntity> getCommentsByQuery(Long queryId) throws EntityNotFoundException {
         QueryEntity query = queryRepository.findById(queryId)
@@ -66,4 +84,13 @@ public class QueryCommentService {
 
         return query.getComments();
     }
+
+    @Transactional
+    public List<CommentDTO> getCommentDTOsByQuery(Long queryId) throws EntityNotFoundException {
+        if (!queryRepository.existsById(queryId)) {
+            throw new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND);
+        }
+
+        return commentRepository.findDTOsByQueryId(queryId);
+    }
 }
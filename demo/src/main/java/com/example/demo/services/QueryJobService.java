@@ -0,0 +1,292 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.config.VirtualThreads;
+import com.example.demo.dto.QueryJobDTO;
+import com.example.demo.dto.QueryJobResultDTO;
+import com.example.demo.dto.QueryJobState;
+import com.example.demo.exceptions.EntityNotFoundException;
+import com.example.demo.exceptions.ErrorMessage;
+import com.example.demo.exceptions.IllegalOperationException;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+import com.google.cloud.bigquery.QueryStage;
+import com.google.cloud.bigquery.TableResult;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Ejecución asíncrona de queries de BigQuery. Los jobs se encolan en un pool acotado
+ * para que los escaneos largos no ocupen hilos de Tomcat. En memoria solo se guarda el
+ * estado de cada job y su número de filas: las páginas del resultado se leen de BigQuery
+ * al pedirlas, así que un escaneo grande no ocupa heap mientras se conserva. Los jobs
+ * terminados se purgan al cumplir el periodo de retención y, si se supera el máximo de
+ * jobs conservados, se descartan antes los que terminaron primero. Cada job solo lo puede
+ * consultar, leer o cancelar el usuario que lo lanzó.
+ *
+ * Con hilos virtuales el pool sigue acotado: no se usa para reutilizar hilos sino para
+ * limitar los jobs simultáneos contra la cuota de BigQuery y encolar el resto.
+ */
+@Service
+public class QueryJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryJobService.class);
+
+    private static final String COMPLETE_STAGE = "COMPLETE";
+
+    private final QueryService queryService;
+    private final BigQueryClient bigQueryClient;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final int maxRetained;
+    private final Map<String, QueryJob> jobs = new ConcurrentHashMap<>();
+
+    public QueryJobService(QueryService queryService, BigQueryClient bigQueryClient,
+            @Value("${bigquery.jobs.threads:4}") int threads,
+            @Value("${bigquery.jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${bigquery.jobs.retention-minutes:30}") long retentionMinutes,
+            @Value("${bigquery.jobs.max-retained:1000}") int maxRetained,
+            @Value("${threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.queryService = queryService;
+        this.bigQueryClient = bigQueryClient;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.maxRetained = maxRetained;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(virtualThreads));
+    }
+
+    private static ThreadFactory threadFactory(boolean virtualThreads) {
+        if (virtualThreads) {
+            return VirtualThreads.threadFactory("query-job-vt-");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "query-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Si el usuario ha agotado su cuota el job termina en FAILED con el motivo
+    public QueryJobDTO submit(Long userId, String query) throws IllegalOperationException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalOperationException("El contenido del query no puede estar vacío o ser solo espacios en blanco.");
+        }
+        purgeExpired();
+        evictOldest();
+
+        QueryJob job = new QueryJob(UUID.randomUUID().toString(), userId, query);
+        // Bajo el cerrojo del job: cancel y run no lo ven hasta que el future está asignado
+        synchronized (job) {
+            jobs.put(job.id, job);
+            try {
+                job.future = executor.submit(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw new RejectedExecutionException("La cola de ejecución de queries está llena, intenta más tarde.", e);
+            }
+        }
+        return toDTO(job);
+    }
+
+    // Mientras se ejecuta incluye el progreso que informa BigQuery
+    public QueryJobDTO getJob(Long userId, String jobId) throws EntityNotFoundException, IllegalOperationException {
+        QueryJob job = find(userId, jobId);
+        QueryJobDTO dto = toDTO(job);
+        if (dto.getState() == QueryJobState.RUNNING) {
+            addProgress(dto, job);
+        }
+        return dto;
+    }
+
+    public QueryJobResultDTO getResults(Long userId, String jobId, int page, int size)
+            throws EntityNotFoundException, IllegalOperationException, InterruptedException {
+        QueryJob job = find(userId, jobId);
+        if (job.state != QueryJobState.DONE) {
+            throw new IllegalOperationException("El job " + jobId + " no ha terminado (estado " + job.state + ").");
+        }
+        if (page < 0 || size <= 0) {
+            throw new IllegalOperationException("La página debe ser >= 0 y el tamaño > 0.");
+        }
+
+        long from = (long) page * size;
+        List<Map<String, Object>> rows = from >= job.totalRows ? List.of() : queryService.getJobRows(job.bigQueryJobId, from, size);
+
+        QueryJobResultDTO dto = new QueryJobResultDTO();
+        dto.setJobId(jobId);
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setTotalRows(job.totalRows);
+        dto.setRows(rows);
+        return dto;
+    }
+
+    public void cancel(Long userId, String jobId) throws EntityNotFoundException, IllegalOperationException {
+        QueryJob job = find(userId, jobId);
+        Future<?> future;
+        synchronized (job) {
+            if (job.state == QueryJobState.DONE || job.state == QueryJobState.FAILED) {
+                return;
+            }
+            job.state = QueryJobState.CANCELLED;
+            job.finishedAt = Instant.now();
+            future = job.future;
+        }
+        if (future != null) {
+            future.cancel(true);
+        }
+        try {
+            bigQueryClient.cancel(job.bigQueryJobId);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo cancelar el job de BigQuery {}: {}", job.bigQueryJobId.getJob(), e.getMessage());
+        }
+    }
+
+    private void run(QueryJob job) {
+        synchronized (job) {
+            if (job.state != QueryJobState.PENDING) {
+                return;
+            }
+            job.state = QueryJobState.RUNNING;
+            job.startedAt = Instant.now();
+        }
+        try {
+            // Solo se recorre la primera página para saber el total; las filas se quedan en BigQuery
+            TableResult result = queryService.executeQuery(job.userId, job.query, job.bigQueryJobId);
+            complete(job, QueryJobState.DONE, result.getTotalRows(), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(job, QueryJobState.CANCELLED, 0L, null);
+        } catch (Exception e) {
+            complete(job, QueryJobState.FAILED, 0L, e.getMessage());
+        }
+    }
+
+    private void complete(QueryJob job, QueryJobState state, long totalRows, String error) {
+        synchronized (job) {
+            if (job.state == QueryJobState.CANCELLED) {
+                return;
+            }
+            job.totalRows = totalRows;
+            job.error = error;
+            job.finishedAt = Instant.now();
+            job.state = state;
+        }
+    }
+
+    private QueryJob find(Long userId, String jobId) throws EntityNotFoundException, IllegalOperationException {
+        QueryJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException(ErrorMessage.QUERY_JOB_NOT_FOUND);
+        }
+        if (job.userId == null || !job.userId.equals(userId)) {
+            throw new IllegalOperationException("El job no pertenece al usuario especificado.");
+        }
+        return job;
+    }
+
+    /*
+     * Etapas del plan de ejecución terminadas sobre el total. BigQuery publica el plan
+     * cuando el job empieza a ejecutarse, así que al principio puede no haberlo; un fallo
+     * al consultarlo deja el estado sin progreso en lugar de fallar la consulta.
+     */
+    private void addProgress(QueryJobDTO dto, QueryJob job) {
+        QueryStatistics statistics;
+        try {
+            statistics = bigQueryClient.getStatistics(job.bigQueryJobId);
+        } catch (RuntimeException e) {
+            logger.debug("No se pudo leer el progreso del job de BigQuery {}: {}", job.bigQueryJobId.getJob(), e.getMessage());
+            return;
+        }
+        List<QueryStage> plan = statistics == null ? null : statistics.getQueryPlan();
+        if (plan == null || plan.isEmpty()) {
+            return;
+        }
+        dto.setTotalStages(plan.size());
+        dto.setCompletedStages((int) plan.stream().filter(stage -> COMPLETE_STAGE.equals(stage.getStatus())).count());
+    }
+
+    // También se llama en cada submit, para no depender de la frecuencia del purgado periódico
+    @Scheduled(fixedDelayString = "${bigquery.jobs.purge-interval-ms:60000}")
+    void purgeExpired() {
+        Instant limit = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    // Deja sitio para un job nuevo descartando los terminados más antiguos; los que siguen en curso no se tocan
+    private void evictOldest() {
+        int excess = jobs.size() - maxRetained + 1;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing(job -> job.finishedAt))
+                .limit(excess)
+                .toList()
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private QueryJobDTO toDTO(QueryJob job) {
+        synchronized (job) {
+            QueryJobDTO dto = new QueryJobDTO();
+            dto.setId(job.id);
+            dto.setState(job.state);
+            dto.setSubmittedAt(job.submittedAt);
+            dto.setStartedAt(job.startedAt);
+            dto.setFinishedAt(job.finishedAt);
+            dto.setError(job.error);
+            if (job.state == QueryJobState.DONE) {
+                dto.setTotalRows(job.totalRows);
+            }
+            return dto;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class QueryJob {
+
+        private final String id;
+        private final Long userId;
+        private final String query;
+        private final JobId bigQueryJobId;
+        private final Instant submittedAt = Instant.now();
+        private volatile QueryJobState state = QueryJobState.PENDING;
+        private volatile Future<?> future;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private long totalRows;
+        private String error;
+
+        QueryJob(String id, Long userId, String query) {
+            this.id = id;
+            this.userId = userId;
+            this.query = query;
+            this.bigQueryJobId = JobId.of(id);
+        }
+    }
+}
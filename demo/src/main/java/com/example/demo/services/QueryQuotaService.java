@@ -0,0 +1,197 @@
+package com.example.demo.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.QueryUsageDTO;
+import com.example.demo.entities.QueryUsageEntity;
+import com.example.demo.exceptions.EntityNotFoundException;
+import com.example.demo.exceptions.ErrorMessage;
+import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.exceptions.QuotaExceededException;
+import com.example.demo.repositories.QueryUsageRepository;
+import com.example.demo.repositories.UserRepository;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+
+import jakarta.transaction.Transactional;
+
+/*
+ * Control de coste de BigQuery. Antes de lanzar un query se hace un dry run (gratuito)
+ * para estimar los bytes que procesaría y se rechaza si supera el máximo por query o lo
+ * que le queda al usuario de su presupuesto diario. Los bytes estimados se reservan en la
+ * fila del día al autorizar, así que varias queries simultáneas del mismo usuario no pueden
+ * pasar todas la comprobación; al terminar la reserva se sustituye por los bytes realmente
+ * facturados. Los presupuestos se reinician a medianoche UTC.
+ */
+@Service
+public class QueryQuotaService {
+
+    private final QueryUsageRepository queryUsageRepository;
+    private final UserRepository userRepository;
+    private final BigQueryClient bigQueryClient;
+    private final TransactionTemplate usageTransaction;
+    private final long maxBytesPerQuery;
+    private final long dailyBytesPerUser;
+    private final Clock clock;
+
+    @Autowired
+    public QueryQuotaService(QueryUsageRepository queryUsageRepository, UserRepository userRepository, BigQueryClient bigQueryClient,
+            PlatformTransactionManager transactionManager,
+            @Value("${bigquery.quota.max-bytes-per-query:10737418240}") long maxBytesPerQuery,
+            @Value("${bigquery.quota.daily-bytes-per-user:107374182400}") long dailyBytesPerUser) {
+        this(queryUsageRepository, userRepository, bigQueryClient, transactionManager, maxBytesPerQuery, dailyBytesPerUser, Clock.systemUTC());
+    }
+
+    QueryQuotaService(QueryUsageRepository queryUsageRepository, UserRepository userRepository, BigQueryClient bigQueryClient,
+            PlatformTransactionManager transactionManager, long maxBytesPerQuery, long dailyBytesPerUser, Clock clock) {
+        this.queryUsageRepository = queryUsageRepository;
+        this.userRepository = userRepository;
+        this.bigQueryClient = bigQueryClient;
+        this.usageTransaction = new TransactionTemplate(transactionManager);
+        this.usageTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxBytesPerQuery = maxBytesPerQuery;
+        this.dailyBytesPerUser = dailyBytesPerUser;
+        this.clock = clock;
+    }
+
+    /*
+     * Reserva los bytes estimados y devuelve la configuración con la que se debe lanzar el
+     * job. Todo query se carga a un usuario: sin él no habría presupuesto diario que aplicar.
+     * Además de la comprobación previa, el job sale con maximumBytesBilled para que BigQuery
+     * lo corte si la estimación se queda corta. Quien recibe la reserva debe cerrarla con
+     * recordUsage si el job se ha lanzado o con release si no.
+     */
+    public Reservation authorize(Long userId, QueryJobConfiguration configuration)
+            throws IllegalOperationException, EntityNotFoundException, InterruptedException {
+        if (userId == null) {
+            throw new IllegalOperationException("Hay que iniciar sesión para ejecutar queries.");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND);
+        }
+
+        long estimatedBytes = estimateBytes(configuration);
+        if (estimatedBytes > maxBytesPerQuery) {
+            throw new IllegalOperationException("El query procesaría " + estimatedBytes + " bytes y el máximo por query es "
+                    + maxBytesPerQuery + ".");
+        }
+        LocalDate today = LocalDate.now(clock);
+        if (!reserve(userId, today, estimatedBytes)) {
+            long remaining = dailyBytesPerUser - bytesCommitted(userId, today);
+            throw new QuotaExceededException("El query procesaría " + estimatedBytes + " bytes y al usuario solo le quedan "
+                    + Math.max(remaining, 0) + " hoy.", secondsUntilReset());
+        }
+
+        return new Reservation(userId, today, estimatedBytes,
+                configuration.toBuilder().setMaximumBytesBilled(maxBytesPerQuery).build());
+    }
+
+    /*
+     * Sustituye la reserva por los bytes realmente facturados por el job. Se liquida en el
+     * día de la reserva aunque el job termine pasada la medianoche.
+     */
+    public void recordUsage(Reservation reservation, JobId jobId) {
+        QueryStatistics statistics = bigQueryClient.getStatistics(jobId);
+        long bytesBilled = statistics == null || statistics.getTotalBytesBilled() == null ? 0L : statistics.getTotalBytesBilled();
+
+        usageTransaction.executeWithoutResult(status -> queryUsageRepository.settleUsage(reservation.userId(),
+                reservation.usageDate(), bytesBilled, reservation.reservedBytes()));
+    }
+
+    // Devuelve al presupuesto una reserva cuyo job no ha llegado a ejecutarse
+    public void release(Reservation reservation) {
+        usageTransaction.executeWithoutResult(status -> queryUsageRepository.releaseReservation(reservation.userId(),
+                reservation.usageDate(), reservation.reservedBytes()));
+    }
+
+    /*
+     * La comprobación y la suma van en el mismo UPDATE, así que dos reservas simultáneas no
+     * pueden pasar ambas con el mismo saldo. Si dos queries del mismo usuario crean a la vez
+     * la fila del día, la que pierde choca con uk_query_usage_user_date; como su transacción
+     * ya no sirve, la reserva se repite en otra nueva, donde la fila ya existe.
+     */
+    private boolean reserve(Long userId, LocalDate today, long bytes) {
+        try {
+            return Boolean.TRUE.equals(usageTransaction.execute(status -> reserveOrCreateUsage(userId, today, bytes)));
+        } catch (DataIntegrityViolationException e) {
+            return Boolean.TRUE.equals(usageTransaction.execute(status ->
+                    queryUsageRepository.reserve(userId, today, bytes, dailyBytesPerUser) == 1));
+        }
+    }
+
+    private boolean reserveOrCreateUsage(Long userId, LocalDate today, long bytes) {
+        if (queryUsageRepository.reserve(userId, today, bytes, dailyBytesPerUser) == 1) {
+            return true;
+        }
+        if (bytes > dailyBytesPerUser || queryUsageRepository.existsByUserIdAndUsageDate(userId, today)) {
+            return false;
+        }
+        QueryUsageEntity usage = new QueryUsageEntity();
+        usage.setUser(userRepository.getReferenceById(userId));
+        usage.setUsageDate(today);
+        usage.setReservedBytes(bytes);
+        queryUsageRepository.saveAndFlush(usage);
+        return true;
+    }
+
+    @Transactional
+    public QueryUsageDTO getUsage(Long userId) throws EntityNotFoundException {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND);
+        }
+        LocalDate today = LocalDate.now(clock);
+        QueryUsageEntity usage = queryUsageRepository.findByUserIdAndUsageDate(userId, today).orElse(null);
+
+        QueryUsageDTO dto = new QueryUsageDTO();
+        dto.setUserId(userId);
+        dto.setDate(today);
+        dto.setBytesBilled(usage == null ? 0L : usage.getBytesBilled());
+        dto.setReservedBytes(usage == null ? 0L : usage.getReservedBytes());
+        dto.setQueryCount(usage == null ? 0 : usage.getQueryCount());
+        dto.setDailyBytesLimit(dailyBytesPerUser);
+        dto.setRemainingBytes(Math.max(dailyBytesPerUser - dto.getBytesBilled() - dto.getReservedBytes(), 0L));
+        dto.setMaxBytesPerQuery(maxBytesPerQuery);
+        return dto;
+    }
+
+    private long estimateBytes(QueryJobConfiguration configuration) throws IllegalOperationException, InterruptedException {
+        QueryStatistics statistics;
+        try {
+            statistics = bigQueryClient.dryRun(configuration);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            // Los errores de sintaxis o de permisos aparecen ya en el dry run
+            throw new IllegalOperationException(e.getMessage());
+        }
+        return statistics == null || statistics.getTotalBytesProcessed() == null ? 0L : statistics.getTotalBytesProcessed();
+    }
+
+    // Facturado más reservado por queries aún en curso
+    private long bytesCommitted(Long userId, LocalDate today) {
+        return queryUsageRepository.findByUserIdAndUsageDate(userId, today)
+                .map(usage -> usage.getBytesBilled() + usage.getReservedBytes())
+                .orElse(0L);
+    }
+
+    private long secondsUntilReset() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        return Math.max(Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(now.getZone())).getSeconds(), 1L);
+    }
+
+    // Bytes reservados para un job: configuration es con la que se debe lanzar
+    public record Reservation(Long userId, LocalDate usageDate, long reservedBytes, QueryJobConfiguration configuration) {
+    }
+}
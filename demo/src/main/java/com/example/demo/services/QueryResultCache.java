@@ -0,0 +1,179 @@
+package com.example.demo.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.ColumnDTO;
+import com.example.demo.dto.ColumnarResultDTO;
+import com.example.demo.dto.QueryCacheStatsDTO;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/*
+ * Caché acotada de resultados de BigQuery. La clave es el SQL normalizado más los
+ * parámetros de ejecución; el peso de cada entrada es una estimación de los bytes que
+ * ocupa en memoria, de forma que el límite se aplica sobre el tamaño y no sobre el
+ * número de entradas.
+ */
+@Component
+public class QueryResultCache {
+
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final Cache<CacheKey, Object> cache;
+
+    public QueryResultCache(@Value("${bigquery.cache.enabled:true}") boolean enabled,
+            @Value("${bigquery.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${bigquery.cache.max-entry-bytes:8388608}") long maxEntryBytes,
+            @Value("${bigquery.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((CacheKey key, Object value) -> (int) Math.min(Integer.MAX_VALUE, estimateBytes(key, value)))
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public <T> T get(String sql, String parameters, Class<T> type) {
+        if (!enabled) {
+            return null;
+        }
+        Object value = cache.getIfPresent(new CacheKey(normalize(sql), parameters));
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    public void put(String sql, String parameters, Object result) {
+        if (!enabled || result == null) {
+            return;
+        }
+        CacheKey key = new CacheKey(normalize(sql), parameters);
+        // Los resultados demasiado grandes no se guardan para no desplazar al resto
+        if (estimateBytes(key, result) > maxEntryBytes) {
+            return;
+        }
+        cache.put(key, result);
+    }
+
+    public void invalidate(String sql) {
+        if (sql == null) {
+            return;
+        }
+        String normalized = normalize(sql);
+        cache.asMap().keySet().removeIf(key -> key.sql().equals(normalized));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public QueryCacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        QueryCacheStatsDTO dto = new QueryCacheStatsDTO();
+        dto.setEnabled(enabled);
+        dto.setEntries(cache.size());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setHitRate(stats.hitRate());
+        return dto;
+    }
+
+    Cache<CacheKey, Object> getCache() {
+        return cache;
+    }
+
+    /*
+     * Colapsa los espacios en blanco fuera de literales y elimina el ';' final, para que
+     * variaciones de formato del mismo SQL compartan entrada.
+     */
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                out.append(c);
+                if (c == '\\' && i + 1 < sql.length()) {
+                    out.append(sql.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            out.append(c);
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ';' || out.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString();
+    }
+
+    static long estimateBytes(CacheKey key, Object value) {
+        long bytes = 64 + 2L * key.sql().length() + (key.parameters() == null ? 0 : 2L * key.parameters().length());
+        if (value instanceof BigQueryResultDTO dto && dto.getRows() != null) {
+            bytes += estimateRows(dto.getRows());
+        } else if (value instanceof ColumnarResultDTO dto && dto.getColumns() != null) {
+            bytes += estimateColumns(dto.getColumns());
+        }
+        return bytes;
+    }
+
+    private static long estimateRows(List<Map<String, Object>> rows) {
+        long bytes = 16;
+        for (Map<String, Object> row : rows) {
+            // Cabecera del HashMap más tabla de buckets
+            bytes += 64 + 8L * row.size();
+            for (Object value : row.values()) {
+                // Nodo del mapa; los nombres de columna se comparten entre filas
+                bytes += 32 + (value instanceof String s ? 40 + 2L * s.length() : 16);
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateColumns(List<ColumnDTO> columns) {
+        long bytes = 16;
+        for (ColumnDTO column : columns) {
+            bytes += 48 + (column.getNulls() == null ? 0 : 16 + 4L * column.getNulls().length);
+            Object values = column.getValues();
+            if (values instanceof long[] longs) {
+                bytes += 16 + 8L * longs.length;
+            } else if (values instanceof double[] doubles) {
+                bytes += 16 + 8L * doubles.length;
+            } else if (values instanceof boolean[] booleans) {
+                bytes += 16 + booleans.length;
+            } else if (values instanceof String[] strings) {
+                bytes += 16 + 4L * strings.length;
+                for (String s : strings) {
+                    bytes += s == null ? 0 : 40 + 2L * s.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    record CacheKey(String sql, String parameters) {
+    }
+}
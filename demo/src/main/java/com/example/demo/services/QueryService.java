@@ -1,38 +1,59 @@
 package com.example.demo.services;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.dto.BigQueryPageDTO;
 import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.ColumnarResultDTO;
 import com.example.demo.entities.QueryEntity;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.ErrorMessage;
 import com.example.demo.exceptions.IllegalOperationException;
 import com.example.demo.repositories.QueryRepository;
+import com.example.demo.repositories.QueryRepository.OwnerAndContent;
 import com.example.demo.repositories.UserRepository;
-import com.google.auth.oauth2.GoogleCredentials;
+import com.example.demo.security.TokenService;
+import com.example.demo.services.QueryQuotaService.Reservation;
 import com.google.cloud.bigquery.BigQuery;
-import com.google.cloud.bigquery.BigQueryOptions;
+import com.google.cloud.bigquery.JobId;
 import com.google.cloud.bigquery.QueryJobConfiguration;
 import com.google.cloud.bigquery.TableResult;
 
+import io.micrometer.core.instrument.Timer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import java.util.Map;
 import java.util.stream.Collectors;
 import com.google.cloud.bigquery.Field;
-import com.google.common.collect.Lists;
 import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
 
 import autovalue.shaded.com.google.common.base.Optional;
 
@@ -48,6 +69,36 @@ public class QueryService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BigQueryClient bigQueryClient;
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private BigQueryMetrics bigQueryMetrics;
+
+    @Autowired
+    private PublicQueryFeed publicQueryFeed;
+
+    @Autowired
+    private QueryQuotaService queryQuotaService;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    private static final String ROWS_FORMAT = "format=rows";
+    private static final String COLUMNAR_FORMAT = "format=columnar";
+
+    private static final int MAX_PAGE_SIZE = 10000;
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
     @Transactional
     public QueryEntity createQuery(Long userId, QueryEntity queryEntity) throws IllegalOperationException, EntityNotFoundException {
         if (queryEntity.getContent() == null || queryEntity.getContent().trim().isEmpty()) {
@@ -62,7 +113,9 @@ public class QueryService {
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
         queryEntity.setUser(user);
         user.getQueries().add(queryEntity); //relación bidireccional
-        return queryRepository.save(queryEntity);
+        QueryEntity saved = queryRepository.save(queryEntity);
+        publicQueryFeed.queryChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -71,6 +124,12 @@ public class QueryService {
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND));
     }
 
+    @Transactional
+    public QueryEntity getQueryWithDetails(Long queryId) throws EntityNotFoundException {
+        return queryRepository.findWithDetailsById(queryId)
+                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND));
+    }
+
     @Transactional
     public List<QueryEntity> getAllQueries() {
         // GET ONLY PUBLIC QUERIES
@@ -78,11 +137,30 @@ public class QueryService {
     }
 
     @Transactional
-    public QueryEntity updateQuery(Long queryId, QueryEntity updatedQuery) throws EntityNotFoundException, IllegalOperationException {
+    public Slice<QueryEntity> getQueriesPage(Pageable pageable, boolean withTotal) {
+        // GET ONLY PUBLIC QUERIES
+        return withTotal ? queryRepository.findByStateTrue(pageable) : queryRepository.findSliceByStateTrue(pageable);
+    }
+
+    @Transactional
+    public Slice<QueryEntity> getQueriesAfter(Long afterId, int limit) {
+        // Se pide una fila de más para saber si existe una página siguiente
+        List<QueryEntity> rows = queryRepository.findByStateTrueAndIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit + 1));
+        boolean hasNext = rows.size() > limit;
+        return new SliceImpl<>(hasNext ? rows.subList(0, limit) : rows, PageRequest.of(0, limit), hasNext);
+    }
+
+    // userId viene del token: solo el dueño del query puede modificarlo
+    @Transactional
+    public QueryEntity updateQuery(Long userId, Long queryId, QueryEntity updatedQuery) throws EntityNotFoundException, IllegalOperationException {
         QueryEntity existingQuery = queryRepository.findById(queryId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND));
+        checkOwner(existingQuery.getUser() == null ? null : existingQuery.getUser().getId(), userId);
 
         if (updatedQuery.getContent() != null && !updatedQuery.getContent().trim().isEmpty()) {
+            // Los resultados cacheados del contenido anterior y del nuevo dejan de ser válidos
+            queryResultCache.invalidate(existingQuery.getContent());
+            queryResultCache.invalidate(updatedQuery.getContent());
             existingQuery.setContent(updatedQuery.getContent());
         } else {
             throw new IllegalOperationException("El contenido del query no puede estar vacío.");
@@ -94,73 +172,376 @@ public class QueryService {
             throw new IllegalOperationException("El estado del query no puede ser nulo.");
         }
 
-        return queryRepository.save(existingQuery);
+        QueryEntity saved = queryRepository.save(existingQuery);
+        publicQueryFeed.queryChanged(saved);
+        return saved;
     }
 
-    @Transactional
-    public void deleteQuery(Long queryId) throws EntityNotFoundException {
-        QueryEntity query = queryRepository.findById(queryId)
+    // Sin @Transactional: los comentarios se borran por lotes antes que el query
+    public void deleteQuery(Long userId, Long queryId) throws EntityNotFoundException, IllegalOperationException {
+        OwnerAndContent query = queryRepository.findOwnerAndContentById(queryId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND));
-        queryRepository.delete(query);
+        checkOwner(query.getUserId(), userId);
+        bulkDeleteService.deleteQuery(queryId);
+        queryResultCache.invalidate(query.getContent());
     }
 
-    public TableResult executeQuery(String query) throws InterruptedException, IOException, IllegalOperationException
-     {  
-        if (query == null || query.trim().isEmpty()) {
-            throw new IllegalOperationException("El contenido del query no puede estar vacío o ser solo espacios en blanco.");
+    private void checkOwner(Long ownerId, Long userId) throws IllegalOperationException {
+        if (ownerId == null || !ownerId.equals(userId)) {
+            throw new IllegalOperationException("El query no pertenece al usuario especificado.");
         }
-    
-        GoogleCredentials credentials = GoogleCredentials.fromStream(new FileInputStream("demo/src/main/java/com/example/demo/keys/demoproy-405817-5173a9d2603f.json"))
-            .createScoped(Lists.newArrayList("https://www.googleapis.com/auth/cloud-platform"));
-        BigQuery bigquery = BigQueryOptions.newBuilder().setCredentials(credentials).build().getService();
-    
-    
+    }
+
+    // userId identifica a quién se cargan los bytes facturados
+    public TableResult executeQuery(Long userId, String query) throws InterruptedException, IOException, IllegalOperationException, EntityNotFoundException
+     {  
+        return execute(BigQueryMetrics.EXECUTE, userId, query, JobId.of(UUID.randomUUID().toString()));
+    }
+
+    public TableResult executeQuery(Long userId, String query, JobId jobId) throws InterruptedException, IllegalOperationException, EntityNotFoundException {
+        return execute(BigQueryMetrics.JOB, userId, query, jobId);
+    }
+
+    private TableResult execute(String operation, Long userId, String query, JobId jobId) throws InterruptedException, IllegalOperationException, EntityNotFoundException {
+        Reservation reservation = prepareQuery(userId, query);
+        TableResult result;
         try {
-            
-            QueryJobConfiguration queryConfig = QueryJobConfiguration.newBuilder(query).build();
+            result = runQuery(operation, () -> bigQueryClient.query(reservation.configuration(), jobId));
+        } catch (InterruptedException | IllegalOperationException e) {
+            releaseQuota(reservation);
+            throw e;
+        }
+        bigQueryMetrics.recordRows(operation, result.getTotalRows());
+        recordUsage(reservation, jobId);
+        return result;
+    }
+
+    /*
+     * Devuelve una sola página del resultado. La primera llamada lanza el query; las
+     * siguientes usan el pageToken devuelto, que identifica el job de BigQuery y la
+     * página, sin volver a ejecutarlo.
+     */
+    public BigQueryPageDTO getQueryPage(Long userId, String query, int pageSize, String pageToken)
+            throws InterruptedException, IllegalOperationException, EntityNotFoundException {
+        validatePageSize(pageSize);
+
+        JobId jobId;
+        TableResult page;
+        if (pageToken == null || pageToken.isEmpty()) {
+            Reservation reservation = prepareQuery(userId, query);
+            jobId = JobId.of(UUID.randomUUID().toString());
+            try {
+                page = fetchPage(reservation.configuration(), jobId, pageSize, null);
+            } catch (InterruptedException | IllegalOperationException e) {
+                releaseQuota(reservation);
+                throw e;
+            }
+            recordUsage(reservation, jobId);
+        } else {
+            PageToken token = PageToken.decode(pageToken, tokenService);
+            if (!token.userId().equals(userId)) {
+                throw new IllegalOperationException("El pageToken no pertenece al usuario especificado.");
+            }
+            jobId = JobId.of(token.jobId());
+            page = fetchPage(null, jobId, pageSize, token.bigQueryToken());
+        }
+        List<Map<String, Object>> rows = toRows(page, pageSize);
+
+        BigQueryPageDTO dto = new BigQueryPageDTO();
+        dto.setRows(rows);
+        dto.setTotalRows(page.getTotalRows());
+        if (page.hasNextPage()) {
+            dto.setNextPageToken(new PageToken(userId, jobId.getJob(), page.getNextPageToken()).encode(tokenService));
+        }
+        return dto;
+    }
+
+    // Filas [startIndex, startIndex + pageSize) de un job ya terminado, leídas de la tabla de resultados de BigQuery
+    public List<Map<String, Object>> getJobRows(JobId jobId, long startIndex, int pageSize) throws InterruptedException, IllegalOperationException {
+        validatePageSize(pageSize);
+        TableResult page = runQuery(BigQueryMetrics.PAGE, () -> bigQueryClient.getQueryResults(jobId,
+                BigQuery.QueryResultsOption.pageSize(pageSize), BigQuery.QueryResultsOption.startIndex(startIndex)));
+        return toRows(page, pageSize);
+    }
+
+    /*
+     * Variante no bloqueante de la ejecución: las filas se emiten según las pide el
+     * cliente y cada página de BigQuery se lee solo cuando se han consumido las filas de
+     * la anterior, así que con un consumidor lento nunca hay más de una página en memoria.
+     * La validación y el dry run de la cuota se hacen al llamar, antes de devolver el Flux.
+     * La reserva se liquida con la primera página o, si el Flux termina antes (error o
+     * cancelación), se devuelve; si nadie llega a suscribirse caduca con el día.
+     */
+    public Flux<Map<String, Object>> streamQueryRows(Long userId, String query, int pageSize)
+            throws IllegalOperationException, EntityNotFoundException, InterruptedException {
+        validatePageSize(pageSize);
+        Reservation reservation = prepareQuery(userId, query);
+        QueryJobConfiguration configuration = reservation.configuration();
+        AtomicBoolean quotaClosed = new AtomicBoolean();
+
+        JobId jobId = JobId.of(UUID.randomUUID().toString());
+        return Flux.<List<Map<String, Object>>, RowCursor>generate(RowCursor::new, (cursor, sink) -> {
+            if (cursor.finished) {
+                sink.complete();
+                return cursor;
+            }
+            try {
+                boolean firstPage = cursor.nextPageToken == null;
+                TableResult page = fetchPage(configuration, jobId, pageSize, cursor.nextPageToken);
+                if (firstPage && quotaClosed.compareAndSet(false, true)) {
+                    recordUsage(reservation, jobId);
+                }
+                cursor.nextPageToken = page.hasNextPage() ? page.getNextPageToken() : null;
+                cursor.finished = cursor.nextPageToken == null;
+                sink.next(toRows(page, pageSize));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sink.error(e);
+            } catch (IllegalOperationException e) {
+                sink.error(e);
+            }
+            return cursor;
+        })
+                // Prefetch de 1: la siguiente página se pide cuando se ha entregado la actual
+                .concatMapIterable(rows -> rows, 1)
+                .doFinally(signal -> {
+                    if (quotaClosed.compareAndSet(false, true)) {
+                        releaseQuota(reservation);
+                    }
+                })
+                // Las llamadas a BigQuery bloquean; no deben correr en el hilo que pide datos
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public BigQueryResultDTO getQueryResult(Long userId, String query, boolean useCache)
+            throws InterruptedException, IOException, IllegalOperationException, EntityNotFoundException {
+        return getCachedResult(userId, query, ROWS_FORMAT, useCache, BigQueryResultDTO.class, this::convertToDTO);
+    }
+
+    public ColumnarResultDTO getColumnarQueryResult(Long userId, String query, boolean useCache)
+            throws InterruptedException, IOException, IllegalOperationException, EntityNotFoundException {
+        return getCachedResult(userId, query, COLUMNAR_FORMAT, useCache, ColumnarResultDTO.class, this::convertToColumnarDTO);
+    }
+
+    // Un acierto de caché no llega a BigQuery, así que tampoco consume cuota
+    private <T> T getCachedResult(Long userId, String query, String format, boolean useCache, Class<T> type,
+            ResultConverter<T> converter) throws InterruptedException, IOException, IllegalOperationException, EntityNotFoundException {
+        validateQuery(query);
 
-            return bigquery.query(queryConfig);
+        if (useCache) {
+            T cached = queryResultCache.get(query, format, type);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        T result = converter.convert(executeQuery(userId, query));
+        if (useCache) {
+            queryResultCache.put(query, format, result);
+        }
+        return result;
+    }
+
+    // Ejecuta la llamada a BigQuery midiendo su latencia; los errores se registran por tipo antes de envolverlos
+    private TableResult runQuery(String operation, BigQueryCall call) throws InterruptedException, IllegalOperationException {
+        Timer.Sample sample = bigQueryMetrics.start();
+        try {
+            TableResult result = call.run();
+            bigQueryMetrics.recordSuccess(sample, operation);
+            return result;
+        } catch (InterruptedException e) {
+            bigQueryMetrics.recordFailure(sample, operation, e);
+            throw e;
         } catch (Exception e) {
-            // Aquí capturas la excepción y extraes el mensaje de error
+            bigQueryMetrics.recordFailure(sample, operation, e);
             throw new IllegalOperationException(e.getMessage());
         }
     }
 
+    // Valida el query y reserva su cuota; la reserva lleva la configuración con la que lanzar el job
+    private Reservation prepareQuery(Long userId, String query) throws IllegalOperationException, EntityNotFoundException, InterruptedException {
+        validateQuery(query);
+        return queryQuotaService.authorize(userId, QueryJobConfiguration.newBuilder(query).build());
+    }
+
+    // Un fallo al anotar el consumo no debe perder un resultado ya obtenido (y facturado)
+    private void recordUsage(Reservation reservation, JobId jobId) {
+        try {
+            queryQuotaService.recordUsage(reservation, jobId);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo registrar el consumo del job {} para el usuario {}: {}", jobId.getJob(), reservation.userId(), e.getMessage());
+        }
+    }
+
+    // Si falla, la reserva sigue contando hasta que se reinicie el presupuesto a medianoche
+    private void releaseQuota(Reservation reservation) {
+        try {
+            queryQuotaService.release(reservation);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo liberar la reserva de cuota del usuario {}: {}", reservation.userId(), e.getMessage());
+        }
+    }
+
+    // Primera página (lanza el job con el id indicado) o la siguiente de un job ya lanzado
+    private TableResult fetchPage(QueryJobConfiguration configuration, JobId jobId, int pageSize, String bigQueryToken)
+            throws InterruptedException, IllegalOperationException {
+        if (bigQueryToken == null) {
+            return runQuery(BigQueryMetrics.PAGE, () -> bigQueryClient.query(configuration, jobId,
+                    BigQuery.QueryResultsOption.pageSize(pageSize)));
+        }
+        return runQuery(BigQueryMetrics.PAGE, () -> bigQueryClient.getQueryResults(jobId, BigQuery.QueryResultsOption.pageSize(pageSize),
+                BigQuery.QueryResultsOption.pageToken(bigQueryToken)));
+    }
+
+    private List<Map<String, Object>> toRows(TableResult page, int pageSize) {
+        List<String> columnNames = columnNames(page);
+        List<Map<String, Object>> rows = new ArrayList<>(pageSize);
+        for (FieldValueList row : page.getValues()) {
+            rows.add(toRowMap(columnNames, row));
+        }
+        bigQueryMetrics.recordRows(BigQueryMetrics.PAGE, rows.size());
+        return rows;
+    }
+
+    private void validatePageSize(int pageSize) throws IllegalOperationException {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalOperationException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    private void validateQuery(String query) throws IllegalOperationException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalOperationException("El contenido del query no puede estar vacío o ser solo espacios en blanco.");
+        }
+    }
+
     public BigQueryResultDTO convertToDTO(TableResult tableResult) throws IllegalOperationException {
         BigQueryResultDTO dto = new BigQueryResultDTO();
         List<Map<String, Object>> rows = new ArrayList<>();
+        Iterator<FieldValueList> iterator = tableResult.iterateAll().iterator();
     
         // Comprobar si hay filas en el resultado
-        if (!tableResult.iterateAll().iterator().hasNext()) {
+        if (!iterator.hasNext()) {
             // throw new IllegalOperationException("empty response");
             return dto;
         }
     
         // Obtenemos los nombres de las columnas del esquema del resultado
-        List<String> columnNames = tableResult.getSchema().getFields().stream()
-            .map(Field::getName)
-            .collect(Collectors.toList());
+        List<String> columnNames = columnNames(tableResult);
     
         // Iteramos sobre cada fila del resultado
-        tableResult.iterateAll().forEach(row -> {
-            Map<String, Object> rowData = new HashMap<>();
-            
-            // Iteramos sobre cada campo en la fila
-            for (int i = 0; i < row.size(); i++) {
-                FieldValue fieldValue = row.get(i);
-                // Comprobar si el valor es nulo
-                String valueAsString = fieldValue.isNull() ? "null" : fieldValue.getValue().toString();
-                rowData.put(columnNames.get(i), valueAsString);
-            }
-    
-            rows.add(rowData);
-        });
+        while (iterator.hasNext()) {
+            rows.add(toRowMap(columnNames, iterator.next()));
+        }
     
         dto.setRows(rows);
         return dto;
     }
 
+    public ColumnarResultDTO convertToColumnarDTO(TableResult tableResult) {
+        if (tableResult.getSchema() == null) {
+            ColumnarResultDTO dto = new ColumnarResultDTO();
+            dto.setColumns(List.of());
+            return dto;
+        }
+        ColumnarResultBuilder builder = new ColumnarResultBuilder(tableResult.getSchema().getFields(), tableResult.getTotalRows());
+        for (TableResult page = tableResult; page != null; page = page.hasNextPage() ? page.getNextPage() : null) {
+            for (FieldValueList row : page.getValues()) {
+                builder.add(row);
+            }
+        }
+        return builder.build();
+    }
 
+    /*
+     * Escribe el resultado como NDJSON (una fila por línea) página a página, sin
+     * materializarlo: solo la página actual de BigQuery está en memoria.
+     */
+    public void writeRows(TableResult tableResult, OutputStream out) throws IOException {
+        List<String> columnNames = columnNames(tableResult);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (TableResult page = tableResult; page != null; page = page.hasNextPage() ? page.getNextPage() : null) {
+                for (FieldValueList row : page.getValues()) {
+                    generator.writeStartObject();
+                    for (int i = 0; i < row.size(); i++) {
+                        generator.writeStringField(columnNames.get(i), valueAsString(row.get(i)));
+                    }
+                    generator.writeEndObject();
+                }
+                generator.flush();
+            }
+            generator.writeRaw('\n');
+        }
+    }
 
-}
+    private List<String> columnNames(TableResult tableResult) {
+        if (tableResult.getSchema() == null) {
+            return List.of();
+        }
+        return tableResult.getSchema().getFields().stream()
+            .map(Field::getName)
+            .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> toRowMap(List<String> columnNames, FieldValueList row) {
+        Map<String, Object> rowData = new HashMap<>();
+        // Iteramos sobre cada campo en la fila
+        for (int i = 0; i < row.size(); i++) {
+            rowData.put(columnNames.get(i), valueAsString(row.get(i)));
+        }
+        return rowData;
+    }
+
+    private String valueAsString(FieldValue fieldValue) {
+        // Comprobar si el valor es nulo
+        return fieldValue.isNull() ? "null" : fieldValue.getValue().toString();
+    }
 
+    /*
+     * Token de continuación: "usuario|job|token de BigQuery" en Base64 URL más su firma HMAC
+     * con la clave de los tokens del login. Sin la firma un cliente podría cambiar el job y
+     * leer páginas de resultados de otro usuario.
+     */
+    record PageToken(Long userId, String jobId, String bigQueryToken) {
+
+        String encode(TokenService tokenService) {
+            String payload = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((userId + "|" + jobId + "|" + bigQueryToken).getBytes(StandardCharsets.UTF_8));
+            return payload + "." + tokenService.signature(payload);
+        }
+
+        static PageToken decode(String token, TokenService tokenService) throws IllegalOperationException {
+            try {
+                int dot = token.indexOf('.');
+                if (dot <= 0 || !tokenService.hasValidSignature(token.substring(0, dot), token.substring(dot + 1))) {
+                    throw new IllegalArgumentException();
+                }
+                String[] parts = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8).split("\\|", 3);
+                if (parts.length != 3 || parts[1].isEmpty() || parts[2].isEmpty()) {
+                    throw new IllegalArgumentException();
+                }
+                return new PageToken(Long.valueOf(parts[0]), parts[1], parts[2]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalOperationException("El pageToken no es válido.");
+            }
+        }
+    }
+
+    // Estado de la lectura paginada de streamQueryRows; solo lo toca el hilo que genera
+    private static final class RowCursor {
+        private boolean finished;
+        private String nextPageToken;
+    }
+
+    @FunctionalInterface
+    private interface BigQueryCall {
+        TableResult run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface ResultConverter<T> {
+        T convert(TableResult tableResult) throws IllegalOperationException;
+    }
+
+}
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import jakarta.transaction.Transactional;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class UserCommentService {
@@ -35,15 +36,13 @@ public class UserCommentService {
         return commentRepository.save(comment);
     }
 
+    // userId viene del token ya verificado: basta comparar con la clave foránea, sin cargar el usuario
     @Transactional
     public void removeCommentFromUser(Long userId, Long commentId) throws EntityNotFoundException, IllegalOperationException{
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
-        
         CommentEntity comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.COMMENT_NOT_FOUND));
 
-        if (!comment.getUser().equals(user)) {
+        if (comment.getUser() == null || !Objects.equals(comment.getUser().getId(), userId)) {
             throw new IllegalOperationException("El comentario no pertenece al usuario especificado.");
         }
 
@@ -1,5 +1,6 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.QueryDTO;
 import com.example.demo.entities.QueryEntity;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
@@ -25,6 +26,14 @@ public class UserQueryService {
     @Autowired
     private QueryRepository queryRepository;
 
+    @Autowired
+    private PublicQueryFeed publicQueryFeed;
+
+    @Autowired
+    private QueryService queryService;
+
+    static final int MAX_BATCH_SIZE = 1000;
+
     @Transactional
     public QueryEntity addQueryToUser(Long userId, QueryEntity queryEntity) throws EntityNotFoundException, IllegalOperationException {
         UserEntity user = userRepository.findById(userId)
@@ -42,24 +51,46 @@ public class UserQueryService {
         user.getQueries().add(queryEntity);
         QueryEntity temp = queryRepository.save(queryEntity);
         userRepository.save(user);
+        publicQueryFeed.queryChanged(temp);
 
         return temp;
     }
 
     @Transactional
-    public void removeQueryFromUser(Long userId, Long queryId) throws EntityNotFoundException, IllegalOperationException {
+    public List<QueryEntity> addQueriesToUser(Long userId, List<QueryEntity> queryEntities) throws EntityNotFoundException, IllegalOperationException {
+        if (queryEntities == null || queryEntities.isEmpty()) {
+            throw new IllegalOperationException("La lista de queries no puede estar vacía.");
+        }
+        if (queryEntities.size() > MAX_BATCH_SIZE) {
+            throw new IllegalOperationException("No se pueden crear más de " + MAX_BATCH_SIZE + " queries por petición.");
+        }
+
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
-        
-        QueryEntity query = queryRepository.findById(queryId)
-                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.QUERY_NOT_FOUND));
 
-        if (!query.getUser().equals(user)) {
-            throw new IllegalOperationException("El query no pertenece al usuario especificado.");
+        for (QueryEntity queryEntity : queryEntities) {
+            if (queryEntity.getContent() == null || queryEntity.getContent().trim().isEmpty()) {
+                throw new IllegalOperationException("El contenido del query no puede estar vacío.");
+            }
+            if (queryEntity.getState() == null) {
+                throw new IllegalOperationException("El estado del query no puede ser nulo.");
+            }
         }
 
-        queryRepository.delete(query);
-        user.getQueries().remove(query);
+        for (QueryEntity queryEntity : queryEntities) {
+            queryEntity.setUser(user);
+            user.getQueries().add(queryEntity);
+        }
+
+        List<QueryEntity> saved = queryRepository.saveAll(queryEntities);
+        publicQueryFeed.queriesChanged(saved);
+        return saved;
+    }
+
+    // Mismo camino que DELETE api/queries/{id}: dueño comprobado contra la clave foránea,
+    // borrado por lotes e invalidación de los resultados cacheados. Sin @Transactional
+    public void removeQueryFromUser(Long userId, Long queryId) throws EntityNotFoundException, IllegalOperationException {
+        queryService.deleteQuery(userId, queryId);
     }
 
     @Transactional
@@ -70,4 +101,13 @@ public class UserQueryService {
         return user.getQueries();
     }
 
+    @Transactional
+    public List<QueryDTO> getQueryDTOsByUser(Long userId) throws EntityNotFoundException {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND);
+        }
+
+        return queryRepository.findDTOsByUserId(userId);
+    }
+
 }
@@ -3,6 +3,7 @@ package com.example.demo.services;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.config.SecurityConfig;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
@@ -14,12 +15,17 @@ import com.example.demo.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import com.example.demo.repositories.QueryRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 import java.util.Optional;
 
-import com.example.demo.entities.QueryEntity;
-
 
 @Slf4j
 @Service
@@ -28,7 +34,23 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    @Transactional
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    /*
+     * createUser, updateUser y authenticateUser no son @Transactional: el hash tarda decenas
+     * de milisegundos más lo que espere en la cola del pool, y no debe hacerse reteniendo
+     * una conexión. Las lecturas y el save abren cada uno su propia transacción corta.
+     */
     public UserEntity createUser(UserEntity userEntity) throws IllegalOperationException {
         if (userEntity.getEmail() == null || userEntity.getEmail().trim().isEmpty()) {
             throw new IllegalOperationException("El email no puede estar vacío o ser nulo.");
@@ -43,7 +65,8 @@ public class UserService {
         if (existingUser.isPresent()) {
             throw new IllegalOperationException("El email ya está en uso.");
         }
-    
+
+        userEntity.setPassword(hash(userEntity.getPassword()));
         return userRepository.save(userEntity);
     }
 
@@ -58,7 +81,47 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // Usuarios con comments y queries ya cargados: dos consultas en total, sin importar cuántos haya
+    @Transactional
+    public List<UserEntity> getAllUsersWithDetails() {
+        List<UserEntity> users = userRepository.findAllWithComments();
+        userRepository.findAllWithQueries();
+        return users;
+    }
+
+    @Transactional
+    public UserEntity getUserWithDetails(Long userId) throws EntityNotFoundException {
+        UserEntity user = userRepository.findWithCommentsById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
+        userRepository.fetchQueries(List.of(user));
+        return user;
+    }
+
+    @Transactional
+    public Slice<UserEntity> getUsersPage(Pageable pageable, boolean withTotal) {
+        // El total exige un COUNT(*) adicional, así que solo se calcula si se pide
+        Slice<UserEntity> page = withTotal ? userRepository.findAll(pageable) : userRepository.findAllBy(pageable);
+        loadDetails(page.getContent());
+        return page;
+    }
+
     @Transactional
+    public Slice<UserEntity> getUsersAfter(Long afterId, int limit) {
+        // Se pide una fila de más para saber si existe una página siguiente
+        List<UserEntity> rows = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit + 1));
+        boolean hasNext = rows.size() > limit;
+        List<UserEntity> content = hasNext ? rows.subList(0, limit) : rows;
+        loadDetails(content);
+        return new SliceImpl<>(content, PageRequest.of(0, limit), hasNext);
+    }
+
+    private void loadDetails(List<UserEntity> users) {
+        if (!users.isEmpty()) {
+            userRepository.fetchComments(users);
+            userRepository.fetchQueries(users);
+        }
+    }
+
     public UserEntity updateUser(Long userId, UserEntity updatedUser) throws EntityNotFoundException, IllegalOperationException {
         UserEntity existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
@@ -73,33 +136,79 @@ public class UserService {
             throw new IllegalOperationException("La contraseña no puede estar vacía o ser nula.");
         }
     
+        String hashedPassword = hash(updatedUser.getPassword());
+
         // Actualizar las propiedades que necesitas
+        credentialCache.invalidate(existingUser.getEmail());
         existingUser.setEmail(updatedUser.getEmail());
-        existingUser.setPassword(updatedUser.getPassword());
+        existingUser.setPassword(hashedPassword);
         existingUser.setComments(updatedUser.getComments());
         existingUser.setQueries(updatedUser.getQueries());
     
         return userRepository.save(existingUser);
     }
 
-    @Transactional
+    // Sin @Transactional: BulkDeleteService borra por lotes, cada uno en su propia transacción
     public void deleteUser(Long userId) throws EntityNotFoundException {
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND));
-        userRepository.delete(user);
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND);
+        }
+        bulkDeleteService.deleteUser(userId);
+    }
+
+    // Para usuarios con muchos queries y comentarios: el borrado sigue en segundo plano
+    public void deleteUserAsync(Long userId) throws EntityNotFoundException {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(ErrorMessage.USER_NOT_FOUND);
+        }
+        bulkDeleteService.deleteUserAsync(userId);
     }
 
-    @Transactional
     public UserEntity authenticateUser(String email, String password) throws EntityNotFoundException, IllegalOperationException {
         UserEntity user = userRepository.findByEmail(email)
             .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con email: " + email));
 
-        if (!user.getPassword().equals(password)) {
+        String stored = user.getPassword();
+        if (password == null || stored == null) {
             throw new IllegalOperationException("Contraseña incorrecta.");
         }
+        if (credentialCache.isVerified(email, password, stored)) {
+            return user;
+        }
 
+        if (isLegacyPlaintext(stored)) {
+            // Filas anteriores al hash: se comparan en claro y se guardan ya hasheadas
+            if (!MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8))) {
+                throw new IllegalOperationException("Contraseña incorrecta.");
+            }
+            rehash(user, password);
+        } else {
+            if (!passwordHashingExecutor.call(() -> passwordEncoder.matches(password, stored))) {
+                throw new IllegalOperationException("Contraseña incorrecta.");
+            }
+            // Hash con un coste menor que el configurado
+            if (passwordEncoder.upgradeEncoding(stored)) {
+                rehash(user, password);
+            }
+        }
+
+        credentialCache.markVerified(email, password, user.getPassword());
         return user;
     }
 
+    // El hash se calcula fuera de transacción; el save abre la suya solo para escribirlo
+    private void rehash(UserEntity user, String password) {
+        user.setPassword(hash(password));
+        userRepository.save(user);
+    }
+
+    private String hash(String password) {
+        return passwordHashingExecutor.call(() -> passwordEncoder.encode(password));
+    }
+
+    private static boolean isLegacyPlaintext(String stored) {
+        return !stored.startsWith("{" + SecurityConfig.PASSWORD_ENCODER_ID + "}");
+    }
+
 
 }
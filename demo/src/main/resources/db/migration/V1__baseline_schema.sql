@@ -0,0 +1,115 @@
+-- Esquema de las entidades tal y como estaban mapeadas al pasar a migraciones (MySQL 8),
+-- con los ids ya generados desde las tablas <entidad>_seq (GenerationType.SEQUENCE) en
+-- lugar de auto_increment. Las bases existentes se marcan en esta versión con
+-- baseline-on-migrate y no lo ejecutan (V3 les crea y alinea las tablas _seq); por eso se
+-- conservan los nombres de restricciones que ya generaba Hibernate.
+
+create table comment_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into comment_entity_seq values ( 1 );
+
+create table comment_entity (
+    id bigint not null,
+    query_id bigint,
+    user_id bigint,
+    content varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table query_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into query_entity_seq values ( 1 );
+
+create table query_entity (
+    state bit,
+    id bigint not null,
+    user_id bigint,
+    content varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table query_entity_comments (
+    comments_id bigint not null,
+    query_entity_id bigint not null
+) engine=InnoDB;
+
+create table user_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into user_entity_seq values ( 1 );
+
+create table user_entity (
+    id bigint not null,
+    email varchar(255),
+    password varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table user_entity_comments (
+    comments_id bigint not null,
+    user_entity_id bigint not null
+) engine=InnoDB;
+
+create table user_entity_queries (
+    queries_id bigint not null,
+    user_entity_id bigint not null
+) engine=InnoDB;
+
+alter table query_entity_comments
+   add constraint UK_s7asal63j09lx3ncy0h08n3t7 unique (comments_id);
+
+alter table user_entity_comments
+   add constraint UK_ce6jnmfs7hfyqclmtm4gupwj2 unique (comments_id);
+
+alter table user_entity_queries
+   add constraint UK_anygsq9son8nntirnovq6499f unique (queries_id);
+
+alter table comment_entity
+   add constraint FK8wrd8t8wvd24xw6l73d841h01
+   foreign key (query_id)
+   references query_entity (id);
+
+alter table comment_entity
+   add constraint FK7u6osru73338guaca8ukops8l
+   foreign key (user_id)
+   references user_entity (id);
+
+alter table query_entity
+   add constraint FKndo34w77fhut34qktiqy26en3
+   foreign key (user_id)
+   references user_entity (id);
+
+alter table query_entity_comments
+   add constraint FKfcia2m7919872x42cs3lhacqu
+   foreign key (comments_id)
+   references comment_entity (id);
+
+alter table query_entity_comments
+   add constraint FKk1mkg5cdooq6xoeuc5s6n1alo
+   foreign key (query_entity_id)
+   references query_entity (id);
+
+alter table user_entity_comments
+   add constraint FKarq6m4gmdkttt4k00q92dg6wt
+   foreign key (comments_id)
+   references comment_entity (id);
+
+alter table user_entity_comments
+   add constraint FKdio9mqmmjxcl85c5l1j5t0uxi
+   foreign key (user_entity_id)
+   references user_entity (id);
+
+alter table user_entity_queries
+   add constraint FKs17ik658to0cq9l922giwcn4d
+   foreign key (queries_id)
+   references query_entity (id);
+
+alter table user_entity_queries
+   add constraint FK2ae1kmmm915k154m910exrwj7
+   foreign key (user_entity_id)
+   references user_entity (id);
@@ -0,0 +1,13 @@
+-- Índices para las búsquedas frecuentes y email único.
+-- Si ya hay emails duplicados la migración falla y hay que depurarlos antes de desplegar.
+
+alter table user_entity
+   add constraint uk_user_entity_email unique (email);
+
+-- findByStateTrue y sus variantes paginadas (el índice secundario incluye el id)
+create index idx_query_entity_state on query_entity (state);
+
+-- Sustituyen a los índices implícitos de las claves foráneas con nombres explícitos
+create index idx_query_entity_user on query_entity (user_id);
+create index idx_comment_entity_user on comment_entity (user_id);
+create index idx_comment_entity_query on comment_entity (query_id);
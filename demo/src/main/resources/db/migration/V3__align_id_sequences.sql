@@ -0,0 +1,23 @@
+-- Las bases creadas con ids AUTO_INCREMENT pueden no tener aún las tablas <entidad>_seq
+-- (GenerationType.SEQUENCE con optimizador pooled-lo). Se crean si faltan y se adelantan
+-- hasta max(id) + 1 para que los ids nuevos no choquen con los existentes.
+
+create table if not exists user_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+create table if not exists query_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+create table if not exists comment_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into user_entity_seq (next_val) select 1 from dual where not exists (select 1 from user_entity_seq);
+insert into query_entity_seq (next_val) select 1 from dual where not exists (select 1 from query_entity_seq);
+insert into comment_entity_seq (next_val) select 1 from dual where not exists (select 1 from comment_entity_seq);
+
+update user_entity_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + 1 from user_entity));
+update query_entity_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + 1 from query_entity));
+update comment_entity_seq set next_val = greatest(next_val, (select coalesce(max(id), 0) + 1 from comment_entity));
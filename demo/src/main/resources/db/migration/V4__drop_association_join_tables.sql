@@ -0,0 +1,23 @@
+-- Las colecciones de UserEntity y QueryEntity pasan a ser el lado inverso (mappedBy) de las
+-- claves foráneas user_id/query_id, así que las tablas de unión dejan de usarse.
+-- Antes de borrarlas se copian sus filas a la clave foránea cuando esta está vacía; si ambas
+-- tienen valor se mantiene la clave foránea, que es la que ya usaban las consultas.
+
+update comment_entity c
+  join user_entity_comments j on j.comments_id = c.id
+   set c.user_id = j.user_entity_id
+ where c.user_id is null;
+
+update comment_entity c
+  join query_entity_comments j on j.comments_id = c.id
+   set c.query_id = j.query_entity_id
+ where c.query_id is null;
+
+update query_entity q
+  join user_entity_queries j on j.queries_id = q.id
+   set q.user_id = j.user_entity_id
+ where q.user_id is null;
+
+drop table user_entity_comments;
+drop table user_entity_queries;
+drop table query_entity_comments;
@@ -0,0 +1,19 @@
+-- Bytes de BigQuery facturados por usuario y día (QueryUsageEntity). Al borrar un usuario
+-- la base borra su consumo (on delete cascade, @OnDelete en la entidad).
+
+create table query_usage_entity_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into query_usage_entity_seq values ( 1 );
+
+create table query_usage_entity (
+    id bigint not null,
+    user_id bigint,
+    usage_date date,
+    bytes_billed bigint not null,
+    query_count integer not null,
+    primary key (id),
+    constraint uk_query_usage_user_date unique (user_id, usage_date),
+    constraint fk_query_usage_user foreign key (user_id) references user_entity (id) on delete cascade
+) engine=InnoDB;
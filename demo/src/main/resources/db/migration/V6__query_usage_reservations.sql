@@ -0,0 +1,4 @@
+-- Bytes reservados por las queries autorizadas que aún no han terminado; el presupuesto
+-- diario se comprueba contra bytes_billed + reserved_bytes (QueryQuotaService).
+
+alter table query_usage_entity add column reserved_bytes bigint not null default 0;
@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testFailsFastBeforeJava21() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> VirtualThreads.threadFactory("test-"));
+        assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("test-"));
+    }
+
+    @Test
+    public void testRunsTasksOnNamedVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        // Arrange
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-vt-");
+
+        try {
+            // Act
+            Thread thread = executor.submit(Thread::currentThread).get();
+
+            // Assert
+            assertTrue(thread.getName().startsWith("test-vt-"));
+            assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
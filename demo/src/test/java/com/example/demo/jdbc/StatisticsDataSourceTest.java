@@ -0,0 +1,139 @@
+package com.example.demo.jdbc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.SqlStatementStatsDTO;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class StatisticsDataSourceTest {
+
+    private SimpleMeterRegistry registry;
+
+    private SqlStatementStatistics statistics;
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        registry = new SimpleMeterRegistry();
+        statistics = new SqlStatementStatistics(registry, 100, 3);
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sqlstats" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource = StatisticsDataSource.wrap(h2, statistics);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id bigint primary key, name varchar(50))");
+        }
+        statistics.reset();
+    }
+
+    @Test
+    public void testGroupsExecutionsByStatementShape() throws Exception {
+        // Arrange & Act
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement insert = connection.prepareStatement("insert into item (id, name) values (?, ?)")) {
+                for (long id = 1; id <= 4; id++) {
+                    insert.setLong(1, id);
+                    insert.setString(2, "item " + id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                readAll(statement.executeQuery("select * from item where id in (1, 2, 3)"));
+                readAll(statement.executeQuery("select * from item where id in (4)"));
+            }
+        }
+
+        // Assert
+        List<SqlStatementStatsDTO> top = statistics.top(10, "count");
+        SqlStatementStatsDTO select = top.get(0);
+        assertEquals("select * from item where id in (...)", select.getStatement());
+        assertEquals(2, select.getCount());
+        assertEquals(4, select.getRows());
+        assertEquals(2, select.getHistogram().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(List.of("StatisticsDataSourceTest.testGroupsExecutionsByStatementShape"), select.getCallers());
+
+        SqlStatementStatsDTO insert = top.get(1);
+        assertEquals(1, insert.getCount());
+        assertEquals(4, insert.getRows());
+    }
+
+    @Test
+    public void testFlagsRepeatedSelectWithinRequest() throws Exception {
+        // Arrange
+        statistics.beginRequest("GET /api/users");
+
+        // Act: una consulta por fila, como una colección perezosa recorrida al mapear
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement select = connection.prepareStatement("select name from item where id = ?")) {
+            for (long id = 1; id <= 5; id++) {
+                select.setLong(1, id);
+                readAll(select.executeQuery());
+            }
+        } finally {
+            statistics.endRequest();
+        }
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement select = connection.prepareStatement("select name from item where id = ?")) {
+            for (long id = 1; id <= 5; id++) {
+                select.setLong(1, id);
+                readAll(select.executeQuery());
+            }
+        }
+
+        // Assert: solo cuenta dentro de una petición, y una vez por petición
+        SqlStatementStatsDTO select = statistics.top(1, "nplusone").get(0);
+        assertEquals(10, select.getCount());
+        assertEquals(1, select.getSuspectedNPlusOneRequests());
+    }
+
+    @Test
+    public void testRecordsFailedStatements() throws Exception {
+        // Act
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            assertThrows(Exception.class, () -> statement.executeQuery("select * from missing_table"));
+        }
+
+        // Assert
+        assertEquals(1, statistics.top(1, "total").get(0).getErrors());
+    }
+
+    @Test
+    public void testReusesTimerPerTypeAndOutcome() throws Exception {
+        // Act
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            readAll(statement.executeQuery("select * from item where id = 1"));
+            readAll(statement.executeQuery("select name from item"));
+            assertThrows(Exception.class, () -> statement.executeQuery("select * from missing_table"));
+        }
+
+        // Assert: las dos formas de SELECT correctas comparten timer
+        Timer success = registry.get("db.statements").tag("type", "select").tag("outcome", "success").timer();
+        Timer error = registry.get("db.statements").tag("type", "select").tag("outcome", "error").timer();
+        assertEquals(2, success.count());
+        assertEquals(1, error.count());
+        assertEquals(2, registry.find("db.statements").tag("type", "select").timers().size());
+    }
+
+    private static void readAll(ResultSet resultSet) throws Exception {
+        try (resultSet) {
+            while (resultSet.next()) {
+                resultSet.getObject(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class JsonLogEncoderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("com.example.demo.services.QueryService");
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testEncodesOneJsonLinePerEvent() throws Exception {
+        // Arrange
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN,
+                "Falló el query {} con \"comillas\"", new IllegalStateException("boom"), new Object[] {42});
+        event.setMDCPropertyMap(Map.of(RequestIdFilter.MDC_KEY, "abc-123"));
+
+        // Act
+        String line = new String(new JsonLogEncoder().encode(event), StandardCharsets.UTF_8);
+
+        // Assert
+        assertTrue(line.endsWith("\n"));
+        assertEquals(1, line.split("\n").length);
+        JsonNode json = objectMapper.readTree(line);
+        assertEquals("WARN", json.get("level").asText());
+        assertEquals("abc-123", json.get("requestId").asText());
+        assertEquals("Falló el query 42 con \"comillas\"", json.get("message").asText());
+        assertTrue(json.get("stack_trace").asText().contains("IllegalStateException: boom"));
+    }
+
+    @Test
+    public void testSqlSamplingKeepsOneInN() {
+        // Arrange
+        SqlSamplingTurboFilter filter = new SqlSamplingTurboFilter();
+        filter.setSampleRate(10);
+        filter.start();
+        Logger sql = context.getLogger("org.hibernate.SQL");
+
+        // Act
+        int logged = 0;
+        for (int i = 0; i < 100; i++) {
+            // Hibernate pregunta el nivel antes de cada sentencia: no debe contar
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sql, Level.DEBUG, null, null, null));
+            if (filter.decide(null, sql, Level.DEBUG, "select 1", null, null) == FilterReply.NEUTRAL) {
+                logged++;
+            }
+        }
+
+        // Assert
+        assertEquals(10, logged);
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.DEBUG, "otro logger", null, null));
+    }
+}
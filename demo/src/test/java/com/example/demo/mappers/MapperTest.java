@@ -0,0 +1,109 @@
+package com.example.demo.mappers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.example.demo.dto.CommentDTO;
+import com.example.demo.dto.CommentDetailDTO;
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.dto.QueryDetailDTO;
+import com.example.demo.dto.UserDTO;
+import com.example.demo.dto.UserDetailDTO;
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Los mappers generados deben producir el mismo JSON que el mapeo anterior con ModelMapper.
+ */
+public class MapperTest {
+
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final QueryMapper queryMapper = new QueryMapperImpl();
+    private final CommentMapper commentMapper = new CommentMapperImpl();
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testDetailDTOsMatchModelMapper() throws Exception {
+        // Arrange
+        UserEntity user = sampleUser();
+        QueryEntity query = user.getQueries().get(0);
+        CommentEntity comment = user.getComments().get(0);
+
+        // Act & Assert
+        assertSameJson(modelMapper.map(user, UserDetailDTO.class), userMapper.toDetailDTO(user));
+        assertSameJson(modelMapper.map(query, QueryDetailDTO.class), queryMapper.toDetailDTO(query));
+        assertSameJson(modelMapper.map(comment, CommentDetailDTO.class), commentMapper.toDetailDTO(comment));
+        assertSameJson(modelMapper.map(user, UserDTO.class), userMapper.toDTO(user));
+        assertSameJson(modelMapper.map(query, QueryDTO.class), queryMapper.toDTO(query));
+        assertSameJson(modelMapper.map(comment, CommentDTO.class), commentMapper.toDTO(comment));
+    }
+
+    @Test
+    public void testToEntityCopiesOnlyScalarFieldsWithoutId() {
+        // Arrange
+        QueryDTO queryDTO = new QueryDTO(5L, "SELECT 1", true);
+        CommentDTO commentDTO = new CommentDTO(6L, "Nice");
+
+        // Act
+        QueryEntity query = queryMapper.toEntity(queryDTO);
+        CommentEntity comment = commentMapper.toEntity(commentDTO);
+
+        // Assert
+        assertNull(query.getId());
+        assertEquals("SELECT 1", query.getContent());
+        assertTrue(query.getState());
+        assertNull(query.getUser());
+        assertNull(query.getComments());
+        assertNull(comment.getId());
+        assertEquals("Nice", comment.getContent());
+        assertNull(comment.getUser());
+        assertNull(comment.getQuery());
+    }
+
+    @Test
+    public void testNullInputsMapToNull() {
+        // Act & Assert
+        assertNull(userMapper.toDetailDTO(null));
+        assertNull(queryMapper.toDTOs(null));
+        assertNull(commentMapper.toEntity(null));
+    }
+
+    private void assertSameJson(Object expected, Object actual) throws Exception {
+        assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(actual));
+    }
+
+    private UserEntity sampleUser() {
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setPassword("secret");
+        user.setQueries(new ArrayList<>());
+        user.setComments(new ArrayList<>());
+
+        QueryEntity query = new QueryEntity();
+        query.setId(2L);
+        query.setContent("SELECT 1");
+        query.setState(true);
+        query.setUser(user);
+
+        CommentEntity comment = new CommentEntity();
+        comment.setId(3L);
+        comment.setContent("Nice");
+        comment.setUser(user);
+        comment.setQuery(query);
+
+        query.setComments(new ArrayList<>(List.of(comment)));
+        user.getQueries().add(query);
+        user.getComments().add(comment);
+        return user;
+    }
+}
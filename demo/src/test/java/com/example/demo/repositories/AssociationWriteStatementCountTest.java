@@ -0,0 +1,90 @@
+package com.example.demo.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+import com.example.demo.services.CommentService;
+import com.example.demo.services.PublicQueryFeed;
+import com.example.demo.services.QueryService;
+import com.example.demo.services.UserQueryService;
+
+/*
+ * Comprueba que las colecciones de usuario y query son el lado inverso de las claves
+ * foráneas: crear o borrar un comentario o un query escribe solo su propia fila, sin
+ * sentencias extra sobre tablas de unión.
+ */
+@Import({CommentService.class, UserQueryService.class})
+public class AssociationWriteStatementCountTest extends StatementCountTestSupport {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserQueryService userQueryService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @MockBean
+    private PublicQueryFeed publicQueryFeed;
+
+    @MockBean
+    private QueryService queryService;
+
+    @Test
+    public void testCreateCommentWritesSingleRow() throws Exception {
+        UserEntity user = seedUser();
+        QueryEntity query = seedQuery(user);
+
+        CommentEntity comment = new CommentEntity();
+        comment.setContent("comentario");
+
+        long statements = countStatements(() -> commentService.createComment(user.getId(), query.getId(), comment));
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        // Usuario, query, INSERT y, si toca nuevo bloque de ids, la secuencia; antes se
+        // añadían dos INSERT en las tablas de unión
+        assertTrue(statements <= 4, "sentencias: " + statements);
+
+        entityManager.clear();
+        CommentEntity stored = commentRepository.findWithDetailsById(comment.getId()).orElseThrow();
+        assertEquals(user.getId(), stored.getUser().getId());
+        assertEquals(query.getId(), stored.getQuery().getId());
+    }
+
+    @Test
+    public void testAddQueryToUserWritesSingleRow() throws Exception {
+        UserEntity user = seedUser();
+
+        QueryEntity query = new QueryEntity();
+        query.setContent("SELECT 1");
+        query.setState(true);
+
+        long statements = countStatements(() -> userQueryService.addQueryToUser(user.getId(), query));
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        // Usuario, INSERT y, si toca nuevo bloque de ids, la secuencia
+        assertTrue(statements <= 3, "sentencias: " + statements);
+    }
+
+    @Test
+    public void testDeleteCommentWritesSingleRow() throws Exception {
+        UserEntity user = seedUser();
+        CommentEntity comment = seedComment(user, seedQuery(user));
+
+        long statements = countStatements(() -> commentService.deleteComment(user.getId(), comment.getId()));
+
+        assertEquals(1, statistics.getEntityDeleteCount());
+        // SELECT del comentario y DELETE; antes también se borraban sus filas de las tablas de unión
+        assertEquals(2, statements);
+        assertFalse(commentRepository.existsById(comment.getId()));
+    }
+
+}
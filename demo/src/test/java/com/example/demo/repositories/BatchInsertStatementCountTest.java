@@ -0,0 +1,95 @@
+package com.example.demo.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.dto.CommentBatchItemDTO;
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+import com.example.demo.services.CommentService;
+import com.example.demo.services.PublicQueryFeed;
+import com.example.demo.services.QueryService;
+import com.example.demo.services.UserQueryService;
+
+/*
+ * Comprueba que los endpoints de creación en lote agrupan los INSERT: el número de
+ * sentencias preparadas depende del número de lotes JDBC, no del de filas.
+ */
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=pooled-lo"
+})
+@Import({CommentService.class, UserQueryService.class})
+public class BatchInsertStatementCountTest extends StatementCountTestSupport {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserQueryService userQueryService;
+
+    @MockBean
+    private PublicQueryFeed publicQueryFeed;
+
+    @MockBean
+    private QueryService queryService;
+
+    @Test
+    public void testCreateCommentsIsBatched() throws Exception {
+        UserEntity user = seedUser(2);
+        List<Long> queryIds = user.getQueries().stream().map(QueryEntity::getId).toList();
+
+        List<CommentBatchItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            CommentBatchItemDTO item = new CommentBatchItemDTO();
+            item.setQueryId(queryIds.get(i % 2));
+            item.setContent("comentario " + i);
+            items.add(item);
+        }
+
+        List<CommentEntity> comments = new ArrayList<>();
+        long statements = countStatements(() -> comments.addAll(commentService.createComments(user.getId(), items)));
+
+        assertEquals(200, comments.size());
+        assertEquals(200, comments.stream().map(CommentEntity::getId).distinct().count());
+        assertEquals(200, statistics.getEntityInsertCount());
+        // Sin lotes sería un INSERT por comentario
+        assertTrue(statements < 20, "sentencias: " + statements);
+    }
+
+    @Test
+    public void testAddQueriesToUserIsBatched() throws Exception {
+        UserEntity user = seedUser(0);
+
+        List<QueryEntity> queries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            QueryEntity query = new QueryEntity();
+            query.setContent("SELECT " + i);
+            query.setState(true);
+            queries.add(query);
+        }
+
+        long statements = countStatements(() -> userQueryService.addQueriesToUser(user.getId(), queries));
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertTrue(statements < 15, "sentencias: " + statements);
+    }
+
+    private UserEntity seedUser(int queries) {
+        UserEntity user = seedUser();
+        for (int i = 0; i < queries; i++) {
+            seedQuery(user, "SELECT " + i);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+import com.example.demo.services.BulkDeleteService;
+import com.example.demo.services.PublicQueryFeed;
+
+/*
+ * Comprueba que borrar un usuario o un query no carga las entidades hijas: se borra con
+ * DELETE por lotes de ids (aquí de 2 en 2) y el resultado es el mismo que con la cascada.
+ */
+@TestPropertySource(properties = "bulk-delete.chunk-size=2")
+@Import(BulkDeleteService.class)
+public class BulkDeleteStatementCountTest extends StatementCountTestSupport {
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueryRepository queryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @MockBean
+    private PublicQueryFeed publicQueryFeed;
+
+    @Test
+    public void testDeleteUserRemovesWholeGraphWithoutLoadingIt() throws Exception {
+        UserEntity user = seedUser();
+        UserEntity other = seedUser();
+        List<QueryEntity> queries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            QueryEntity query = seedQuery(user);
+            queries.add(query);
+            seedComment(user, query);
+            // Comentario de otro usuario sobre un query del usuario borrado
+            seedComment(other, query);
+        }
+        QueryEntity otherQuery = seedQuery(other);
+        CommentEntity otherComment = seedComment(other, otherQuery);
+
+        long statements = countStatements(() -> bulkDeleteService.deleteUser(user.getId()));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        // 3 + 3 comentarios y 3 queries de 2 en 2: por cada grupo, un SELECT de ids y un DELETE
+        // por lote más el SELECT vacío que cierra el bucle, y el DELETE del usuario
+        assertEquals((2 * 2 + 1) * 3 + 1, statements);
+
+        assertFalse(userRepository.existsById(user.getId()));
+        for (QueryEntity query : queries) {
+            assertFalse(queryRepository.existsById(query.getId()));
+        }
+        assertEquals(List.of(otherComment.getId()), commentRepository.findAll().stream().map(CommentEntity::getId).toList());
+        assertTrue(queryRepository.existsById(otherQuery.getId()));
+        assertTrue(userRepository.existsById(other.getId()));
+    }
+
+    @Test
+    public void testDeleteQueryRemovesItsComments() throws Exception {
+        UserEntity user = seedUser();
+        QueryEntity query = seedQuery(user);
+        QueryEntity kept = seedQuery(user);
+        for (int i = 0; i < 3; i++) {
+            seedComment(user, query);
+        }
+        CommentEntity keptComment = seedComment(user, kept);
+
+        countStatements(() -> bulkDeleteService.deleteQuery(query.getId()));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(queryRepository.existsById(query.getId()));
+        assertTrue(queryRepository.existsById(kept.getId()));
+        assertEquals(List.of(keptComment.getId()), commentRepository.findAll().stream().map(CommentEntity::getId).toList());
+        verify(publicQueryFeed).queryRemoved(query.getId());
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.example.demo.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.dto.CommentDTO;
+import com.example.demo.dto.CommentDetailDTO;
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.dto.QueryDetailDTO;
+import com.example.demo.dto.UserDetailDTO;
+import com.example.demo.entities.UserEntity;
+import com.example.demo.security.TokenService;
+import com.example.demo.services.BigQueryClient;
+import com.example.demo.services.BigQueryMetrics;
+import com.example.demo.services.BulkDeleteService;
+import com.example.demo.services.CommentService;
+import com.example.demo.services.CredentialCache;
+import com.example.demo.services.PasswordHashingExecutor;
+import com.example.demo.services.PublicQueryFeed;
+import com.example.demo.services.QueryQuotaService;
+import com.example.demo.services.QueryResultCache;
+import com.example.demo.services.QueryService;
+import com.example.demo.services.UserService;
+
+/*
+ * Comprueba que el número de sentencias SQL de los endpoints de lectura no crece con
+ * el número de filas (sin N+1 al mapear a los DTO de detalle).
+ */
+@Import({UserService.class, QueryService.class, CommentService.class})
+public class FetchPlanStatementCountTest extends StatementCountTestSupport {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private QueryService queryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private QueryRepository queryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @MockBean
+    private BigQueryClient bigQueryClient;
+
+    @MockBean
+    private QueryResultCache queryResultCache;
+
+    @MockBean
+    private BigQueryMetrics bigQueryMetrics;
+
+    @MockBean
+    private PublicQueryFeed publicQueryFeed;
+
+    @MockBean
+    private QueryQuotaService queryQuotaService;
+
+    @MockBean
+    private BulkDeleteService bulkDeleteService;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @MockBean
+    private CredentialCache credentialCache;
+
+    @MockBean
+    private TokenService tokenService;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    @Test
+    public void testUserListStatementCountIsConstant() throws Exception {
+        seedUsers(2, 2);
+        long small = countStatements(() -> {
+            List<UserDetailDTO> users = modelMapper.map(userService.getAllUsersWithDetails(), new TypeToken<List<UserDetailDTO>>() {}.getType());
+            assertEquals(2, users.size());
+        });
+
+        seedUsers(6, 3);
+        long large = countStatements(() -> {
+            List<UserDetailDTO> users = modelMapper.map(userService.getAllUsersWithDetails(), new TypeToken<List<UserDetailDTO>>() {}.getType());
+            assertEquals(8, users.size());
+            assertEquals(3, users.get(7).getQueries().size());
+        });
+
+        assertEquals(small, large);
+        assertTrue(large <= 2, "sentencias: " + large);
+    }
+
+    @Test
+    public void testUserDetailStatementCountIsConstant() throws Exception {
+        List<UserEntity> users = seedUsers(2, 5);
+        long count = countStatements(() -> {
+            UserDetailDTO dto = modelMapper.map(userService.getUserWithDetails(users.get(1).getId()), UserDetailDTO.class);
+            assertEquals(5, dto.getQueries().size());
+            assertEquals(5, dto.getComments().size());
+        });
+
+        assertTrue(count <= 2, "sentencias: " + count);
+    }
+
+    @Test
+    public void testQueryDetailStatementCountIsConstant() throws Exception {
+        List<UserEntity> users = seedUsers(1, 4);
+        Long queryId = users.get(0).getQueries().get(0).getId();
+
+        long count = countStatements(() -> {
+            QueryDetailDTO dto = modelMapper.map(queryService.getQueryWithDetails(queryId), QueryDetailDTO.class);
+            assertNotNull(dto.getUser());
+            assertEquals(1, dto.getComments().size());
+        });
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testCommentListAndDetailStatementCount() throws Exception {
+        List<UserEntity> users = seedUsers(5, 2);
+        Long commentId = users.get(0).getComments().get(0).getId();
+
+        long list = countStatements(() -> {
+            List<CommentDTO> comments = modelMapper.map(commentService.getAllComments(), new TypeToken<List<CommentDTO>>() {}.getType());
+            assertEquals(10, comments.size());
+        });
+        long detail = countStatements(() -> {
+            CommentDetailDTO dto = modelMapper.map(commentService.getCommentWithDetails(commentId), CommentDetailDTO.class);
+            assertNotNull(dto.getUser());
+            assertNotNull(dto.getQuery());
+        });
+
+        assertEquals(1, list);
+        assertEquals(1, detail);
+    }
+
+    @Test
+    public void testProjectionsSkipEntityHydration() throws Exception {
+        List<UserEntity> users = seedUsers(1, 3);
+        Long userId = users.get(0).getId();
+        Long queryId = users.get(0).getQueries().get(0).getId();
+
+        long count = countStatements(() -> {
+            List<QueryDTO> queries = queryRepository.findDTOsByUserId(userId);
+            List<CommentDTO> comments = commentRepository.findDTOsByQueryId(queryId);
+            assertEquals(3, queries.size());
+            assertEquals("SELECT 0", queries.get(0).getContent());
+            assertEquals(1, comments.size());
+        });
+
+        assertEquals(2, count);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private List<UserEntity> seedUsers(int users, int queriesPerUser) {
+        List<UserEntity> created = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            UserEntity user = seedUser();
+            for (int j = 0; j < queriesPerUser; j++) {
+                seedComment(user, seedQuery(user, "SELECT " + j), "comment " + j);
+            }
+            created.add(user);
+        }
+        entityManager.clear();
+        return created;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.demo.entities.UserEntity;
+
+/*
+ * Aplica todas las migraciones sobre un MySQL vacío y arranca Hibernate con
+ * ddl-auto=validate: si el mapeo de alguna entidad no coincide con el esquema de
+ * V1..Vn el contexto no llega a cargar. Sin Docker el test se omite.
+ */
+@DataJpaTest(showSql = false, properties = {
+    "spring.flyway.enabled=true",
+    "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class FlywayMigrationTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void testMigrationsMatchEntityMapping() {
+        // Assert
+        assertEquals(0, flyway.info().pending().length);
+        assertTrue(flyway.info().applied().length > 0);
+    }
+
+    @Test
+    public void testSequenceTablesGenerateIds() {
+        // Arrange
+        UserEntity user = new UserEntity();
+        user.setEmail("flyway@example.com");
+        user.setPassword("secret");
+
+        // Act
+        UserEntity saved = userRepository.saveAndFlush(user);
+
+        // Assert
+        assertNotNull(saved.getId());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * Caché de segundo nivel y caché de consultas. Sin transacción de test: cada llamada al
+ * repositorio confirma la suya, que es cuando Hibernate actualiza las regiones.
+ */
+@DataJpaTest(showSql = false, properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueryRepository queryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testFindUserByIdIsServedFromCache() {
+        Long userId = saveUser().getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        assertTrue(userRepository.findById(userId).isPresent());
+        long afterFirst = statistics.getPrepareStatementCount();
+        assertTrue(userRepository.findById(userId).isPresent());
+
+        assertEquals(1, afterFirst);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(UserEntity.class.getName()).getHitCount());
+    }
+
+    @Test
+    public void testFindByStateTrueUsesQueryCacheUntilQueriesChange() {
+        saveQuery("SELECT 1", true);
+        saveQuery("SELECT 2", true);
+        saveQuery("SELECT 3", false);
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        assertEquals(2, queryRepository.findByStateTrue().size());
+        long afterFirst = statistics.getPrepareStatementCount();
+        assertEquals(2, queryRepository.findByStateTrue().size());
+        long afterSecond = statistics.getPrepareStatementCount();
+
+        saveQuery("SELECT 4", true);
+        long afterInsert = statistics.getPrepareStatementCount();
+        assertEquals(3, queryRepository.findByStateTrue().size());
+
+        assertEquals(afterFirst, afterSecond);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertTrue(statistics.getPrepareStatementCount() > afterInsert);
+    }
+
+    private UserEntity saveUser() {
+        UserEntity user = new UserEntity();
+        user.setEmail("user" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setQueries(new ArrayList<>());
+        user.setComments(new ArrayList<>());
+        return userRepository.save(user);
+    }
+
+    private QueryEntity saveQuery(String content, boolean state) {
+        QueryEntity query = new QueryEntity();
+        query.setContent(content);
+        query.setState(state);
+        query.setComments(new ArrayList<>());
+        return queryRepository.save(query);
+    }
+}
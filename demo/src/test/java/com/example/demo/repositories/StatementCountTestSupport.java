@@ -0,0 +1,102 @@
+package com.example.demo.repositories;
+
+import java.util.ArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.demo.entities.CommentEntity;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * Base de los tests que cuentan sentencias SQL con las estadísticas de Hibernate. Cada
+ * subclase importa los servicios que prueba y, si necesita más propiedades (tamaño de
+ * lote, etc.), las añade con su propio @TestPropertySource, que se suma a este.
+ */
+@DataJpaTest(showSql = false)
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public abstract class StatementCountTestSupport {
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    public void setUpStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Sentencias preparadas por la acción, partiendo de un contexto de persistencia vacío e incluyendo el flush final
+    protected long countStatements(ThrowingRunnable action) throws Exception {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Los helpers mantienen las dos caras de cada relación para poder navegar lo sembrado
+    protected UserEntity seedUser() {
+        UserEntity user = new UserEntity();
+        user.setEmail("user" + System.nanoTime() + "@example.com");
+        user.setPassword("secret");
+        user.setQueries(new ArrayList<>());
+        user.setComments(new ArrayList<>());
+        entityManager.persist(user);
+        entityManager.flush();
+        return user;
+    }
+
+    protected QueryEntity seedQuery(UserEntity user) {
+        return seedQuery(user, "SELECT 1");
+    }
+
+    protected QueryEntity seedQuery(UserEntity user, String content) {
+        QueryEntity query = new QueryEntity();
+        query.setContent(content);
+        query.setState(true);
+        query.setUser(user);
+        query.setComments(new ArrayList<>());
+        entityManager.persist(query);
+        entityManager.flush();
+        user.getQueries().add(query);
+        return query;
+    }
+
+    protected CommentEntity seedComment(UserEntity user, QueryEntity query) {
+        return seedComment(user, query, "comentario");
+    }
+
+    protected CommentEntity seedComment(UserEntity user, QueryEntity query, String content) {
+        CommentEntity comment = new CommentEntity();
+        comment.setContent(content);
+        comment.setUser(user);
+        comment.setQuery(query);
+        entityManager.persist(comment);
+        entityManager.flush();
+        user.getComments().add(comment);
+        query.getComments().add(comment);
+        return comment;
+    }
+
+    @FunctionalInterface
+    protected interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.demo.entities.UserEntity;
+
+public class TokenAuthenticationFilterTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private TokenService tokenService;
+
+    private TokenAuthenticationFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        tokenService = new TokenService(SECRET, 3600, Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC));
+        filter = new TokenAuthenticationFilter(tokenService, Set.of(1L));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testConfiguredUserGetsAdminRole() throws Exception {
+        // Act
+        Authentication authentication = authenticate(1L);
+
+        // Assert
+        assertTrue(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals));
+    }
+
+    @Test
+    public void testOtherUserIsNotAdmin() throws Exception {
+        // Act
+        Authentication authentication = authenticate(2L);
+
+        // Assert
+        assertTrue(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_USER"::equals));
+        assertTrue(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).noneMatch("ROLE_ADMIN"::equals));
+    }
+
+    private Authentication authenticate(Long userId) throws Exception {
+        UserEntity user = new UserEntity();
+        user.setId(userId);
+        user.setEmail("user" + userId + "@example.com");
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(user));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        return authentication;
+    }
+}
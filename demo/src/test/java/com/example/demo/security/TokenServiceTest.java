@@ -0,0 +1,84 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entities.UserEntity;
+
+public class TokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private TokenService tokenService;
+
+    private UserEntity user;
+
+    @BeforeEach
+    public void setUp() {
+        tokenService = new TokenService(SECRET, 3600, Clock.fixed(NOW, ZoneOffset.UTC));
+        user = new UserEntity();
+        user.setId(7L);
+        user.setEmail("test@example.com");
+    }
+
+    @Test
+    public void testIssuedTokenIsVerified() {
+        // Act
+        AuthenticatedUser principal = tokenService.verify(tokenService.issue(user)).orElseThrow();
+
+        // Assert
+        assertEquals(7L, principal.getId());
+        assertEquals("test@example.com", principal.getEmail());
+    }
+
+    @Test
+    public void testTamperedPayloadIsRejected() {
+        // Arrange: mismo token con otro "sub"
+        String[] parts = tokenService.issue(user).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1])).replace("\"7\"", "\"8\"");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes()) + "." + parts[2];
+
+        // Act & Assert
+        assertTrue(tokenService.verify(tampered).isEmpty());
+    }
+
+    @Test
+    public void testUnsignedTokenIsRejected() {
+        // Arrange
+        String[] parts = tokenService.issue(user).split("\\.");
+        String none = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\",\"typ\":\"JWT\"}".getBytes());
+
+        // Act & Assert
+        assertTrue(tokenService.verify(none + "." + parts[1] + ".").isEmpty());
+        assertTrue(tokenService.verify("no-es-un-token").isEmpty());
+    }
+
+    @Test
+    public void testExpiredTokenIsRejected() {
+        // Arrange
+        String token = tokenService.issue(user);
+        TokenService later = new TokenService(SECRET, 3600, Clock.fixed(NOW.plusSeconds(3600), ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testTokenSignedWithAnotherSecretIsRejected() {
+        // Arrange
+        byte[] otherSecret = new byte[32];
+        otherSecret[0] = 1;
+        TokenService other = new TokenService(Base64.getEncoder().encodeToString(otherSecret), 3600, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(tokenService.verify(other.issue(user)).isEmpty());
+    }
+}
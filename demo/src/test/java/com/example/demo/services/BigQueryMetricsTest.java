@@ -0,0 +1,88 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.BigQueryResultDTO;
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BigQueryMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private QueryResultCache queryResultCache;
+    private BigQueryMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        queryResultCache = new QueryResultCache(true, 1024 * 1024, 1024 * 1024, 60);
+        metrics = new BigQueryMetrics(registry, queryResultCache);
+    }
+
+    @Test
+    public void testRecordSuccessAndRows() {
+        // Act
+        Timer.Sample sample = metrics.start();
+        metrics.recordSuccess(sample, BigQueryMetrics.EXECUTE);
+        metrics.recordRows(BigQueryMetrics.EXECUTE, 42);
+
+        // Assert
+        assertEquals(1, registry.get("bigquery.query").tags("operation", "execute", "outcome", "success").timer().count());
+        assertEquals(42.0, registry.get("bigquery.query.rows").tag("operation", "execute").summary().totalAmount());
+    }
+
+    @Test
+    public void testRecordFailureUsesBigQueryReason() {
+        // Arrange
+        BigQueryException error = mock(BigQueryException.class);
+        when(error.getReason()).thenReturn("invalidQuery");
+
+        // Act
+        metrics.recordFailure(metrics.start(), BigQueryMetrics.PAGE, error);
+        metrics.recordFailure(metrics.start(), BigQueryMetrics.PAGE, new InterruptedException());
+
+        // Assert
+        assertEquals(1.0, registry.get("bigquery.query.errors").tags("operation", "page", "type", "invalidQuery").counter().count());
+        assertEquals(1.0, registry.get("bigquery.query.errors").tags("type", "InterruptedException").counter().count());
+        assertEquals(2, registry.get("bigquery.query").tag("outcome", "error").timers().size());
+    }
+
+    @Test
+    public void testRecordStatistics() {
+        // Arrange
+        QueryStatistics statistics = mock(QueryStatistics.class);
+        when(statistics.getTotalBytesBilled()).thenReturn(10_485_760L);
+        when(statistics.getTotalBytesProcessed()).thenReturn(1_000L);
+        when(statistics.getCacheHit()).thenReturn(true);
+
+        // Act
+        metrics.recordStatistics(statistics);
+        metrics.recordStatistics(null);
+
+        // Assert
+        assertEquals(10_485_760.0, registry.get("bigquery.query.bytes.billed").counter().count());
+        assertEquals(1_000.0, registry.get("bigquery.query.bytes.processed").counter().count());
+        assertEquals(1.0, registry.get("bigquery.query.cache.hits").counter().count());
+    }
+
+    @Test
+    public void testResultCacheIsMonitored() {
+        // Arrange
+        queryResultCache.put("SELECT 1", "format=rows", new BigQueryResultDTO());
+
+        // Act
+        queryResultCache.get("SELECT 1", "format=rows", BigQueryResultDTO.class);
+        queryResultCache.get("SELECT 2", "format=rows", BigQueryResultDTO.class);
+
+        // Assert
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "bigquery.results", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "bigquery.results", "result", "miss").functionCounter().count());
+    }
+}
@@ -6,13 +6,17 @@ import static org.mockito.Mockito.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
+import com.example.demo.dto.CommentBatchItemDTO;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.entities.QueryEntity;
 import com.example.demo.entities.UserEntity;
@@ -98,6 +102,7 @@ public class CommentServiceTest {
         CommentEntity existingComment = new CommentEntity();
         existingComment.setId(commentId);
         existingComment.setContent("Old content");
+        existingComment.setUser(author(1L));
 
         CommentEntity updatedComment = new CommentEntity();
         updatedComment.setId(commentId);
@@ -107,7 +112,7 @@ public class CommentServiceTest {
         when(commentRepository.save(existingComment)).thenReturn(existingComment);
 
         // Act
-        CommentEntity modifiedComment = commentService.updateComment(commentId, updatedComment);
+        CommentEntity modifiedComment = commentService.updateComment(1L, commentId, updatedComment);
 
         // Assert
         assertNotNull(modifiedComment);
@@ -122,6 +127,7 @@ public class CommentServiceTest {
         CommentEntity existingComment = new CommentEntity();
         existingComment.setId(commentId);
         existingComment.setContent("Old content");
+        existingComment.setUser(author(1L));
 
         CommentEntity updatedComment = new CommentEntity();
         updatedComment.setId(commentId);
@@ -130,7 +136,27 @@ public class CommentServiceTest {
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(existingComment));
 
         // Act & Assert
-        assertThrows(IllegalOperationException.class, () -> commentService.updateComment(commentId, updatedComment));
+        assertThrows(IllegalOperationException.class, () -> commentService.updateComment(1L, commentId, updatedComment));
+    }
+
+    @Test
+    public void testUpdateCommentOfAnotherUser() {
+        // Arrange
+        Long commentId = 1L;
+        CommentEntity existingComment = new CommentEntity();
+        existingComment.setId(commentId);
+        existingComment.setContent("Old content");
+        existingComment.setUser(author(1L));
+
+        CommentEntity updatedComment = new CommentEntity();
+        updatedComment.setContent("New content");
+
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(existingComment));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> commentService.updateComment(2L, commentId, updatedComment));
+        assertEquals("Old content", existingComment.getContent());
+        verify(commentRepository, never()).save(any());
     }
 
     @Test
@@ -185,16 +211,17 @@ public class CommentServiceTest {
     }
 
     @Test
-    public void testDeleteComment() throws EntityNotFoundException {
+    public void testDeleteComment() throws EntityNotFoundException, IllegalOperationException {
         // Arrange
         Long commentId = 1L;
         CommentEntity comment = new CommentEntity();
         comment.setId(commentId);
+        comment.setUser(author(1L));
 
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
 
         // Act
-        commentService.deleteComment(commentId);
+        commentService.deleteComment(1L, commentId);
 
         // Assert (verify that delete was called)
         verify(commentRepository, times(1)).delete(comment);
@@ -208,6 +235,107 @@ public class CommentServiceTest {
         when(commentRepository.findById(commentId)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> commentService.deleteComment(commentId));
+        assertThrows(EntityNotFoundException.class, () -> commentService.deleteComment(1L, commentId));
+    }
+
+    @Test
+    public void testDeleteCommentOfAnotherUser() {
+        // Arrange
+        Long commentId = 1L;
+        CommentEntity comment = new CommentEntity();
+        comment.setId(commentId);
+        comment.setUser(author(1L));
+
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> commentService.deleteComment(2L, commentId));
+        verify(commentRepository, never()).delete(any());
+    }
+
+    @Test
+    public void testGetCommentsAfterLastPage() {
+        // Arrange
+        CommentEntity comment = new CommentEntity();
+        comment.setId(5L);
+        when(commentRepository.findByIdGreaterThanOrderByIdAsc(4L, PageRequest.of(0, 11))).thenReturn(List.of(comment));
+
+        // Act
+        Slice<CommentEntity> page = commentService.getCommentsAfter(4L, 10);
+
+        // Assert
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void testCreateCommentsResolvesReferencesOnce() throws IllegalOperationException, EntityNotFoundException {
+        // Arrange
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setComments(new ArrayList<>());
+        QueryEntity firstQuery = new QueryEntity();
+        firstQuery.setId(10L);
+        firstQuery.setComments(new ArrayList<>());
+        QueryEntity secondQuery = new QueryEntity();
+        secondQuery.setId(11L);
+        secondQuery.setComments(new ArrayList<>());
+
+        List<CommentBatchItemDTO> items = List.of(batchItem(10L, "Primero"), batchItem(11L, "Segundo"), batchItem(10L, "Tercero"));
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(queryRepository.findAllById(Set.of(10L, 11L))).thenReturn(List.of(firstQuery, secondQuery));
+        when(commentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<CommentEntity> comments = commentService.createComments(1L, items);
+
+        // Assert
+        assertEquals(3, comments.size());
+        assertEquals("Segundo", comments.get(1).getContent());
+        assertSame(secondQuery, comments.get(1).getQuery());
+        assertSame(user, comments.get(2).getUser());
+        assertEquals(3, user.getComments().size());
+        assertEquals(2, firstQuery.getComments().size());
+        verify(userRepository, times(1)).findById(1L);
+        verify(queryRepository, never()).findById(any());
+        verify(commentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testCreateCommentsWithMissingQuery() {
+        // Arrange
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        user.setComments(new ArrayList<>());
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(queryRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> commentService.createComments(1L, List.of(batchItem(99L, "Hola"))));
+        verify(commentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testCreateCommentsWithInvalidItems() {
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> commentService.createComments(1L, List.of()));
+        assertThrows(IllegalOperationException.class, () -> commentService.createComments(1L, List.of(batchItem(10L, " "))));
+        assertThrows(IllegalOperationException.class, () -> commentService.createComments(1L, List.of(batchItem(null, "Hola"))));
+        verifyNoInteractions(userRepository, queryRepository, commentRepository);
+    }
+
+    private CommentBatchItemDTO batchItem(Long queryId, String content) {
+        CommentBatchItemDTO item = new CommentBatchItemDTO();
+        item.setQueryId(queryId);
+        item.setContent(content);
+        return item;
+    }
+
+    private UserEntity author(Long id) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        return user;
     }
 }
@@ -0,0 +1,154 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.QueryDTO;
+import com.example.demo.entities.QueryEntity;
+import com.example.demo.mappers.QueryMapperImpl;
+import com.example.demo.repositories.QueryRepository;
+
+public class PublicQueryFeedTest {
+
+    @Mock
+    private QueryRepository queryRepository;
+
+    private PublicQueryFeed feed;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        feed = new PublicQueryFeed(queryRepository, new QueryMapperImpl(), 300);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testCurrentLoadsOnceAndKeepsEtag() {
+        // Arrange
+        when(queryRepository.findByStateTrue()).thenReturn(List.of(query(2L, true), query(1L, true)));
+
+        // Act
+        PublicQueryFeed.Snapshot first = feed.current();
+        PublicQueryFeed.Snapshot second = feed.current();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(List.of(1L, 2L), ids(first));
+        verify(queryRepository, times(1)).findByStateTrue();
+    }
+
+    @Test
+    public void testChangesAreAppliedIncrementally() {
+        // Arrange
+        when(queryRepository.findByStateTrue()).thenReturn(List.of(query(1L, true), query(2L, true)));
+        PublicQueryFeed.Snapshot initial = feed.current();
+
+        // Act
+        feed.queryChanged(query(3L, true));
+        feed.queryChanged(query(1L, false));
+        feed.queryRemoved(2L);
+        PublicQueryFeed.Snapshot updated = feed.current();
+
+        // Assert
+        assertEquals(List.of(3L), ids(updated));
+        assertNotEquals(initial.getEtag(), updated.getEtag());
+        assertEquals(List.of(1L, 2L), ids(initial));
+        verify(queryRepository, times(1)).findByStateTrue();
+    }
+
+    @Test
+    public void testUnchangedRemovalKeepsEtag() {
+        // Arrange
+        when(queryRepository.findByStateTrue()).thenReturn(List.of(query(1L, true)));
+        PublicQueryFeed.Snapshot initial = feed.current();
+
+        // Act
+        feed.queryRemoved(99L);
+        feed.queryChanged(query(5L, false));
+
+        // Assert
+        assertSame(initial, feed.current());
+    }
+
+    @Test
+    public void testBatchRegistersOneSynchronization() {
+        // Arrange
+        when(queryRepository.findByStateTrue()).thenReturn(List.of(query(1L, true)));
+        PublicQueryFeed.Snapshot initial = feed.current();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        feed.queriesChanged(List.of(query(2L, true), query(3L, true), query(1L, false)));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(1, synchronizations.size());
+        assertEquals(List.of(2L, 3L), ids(feed.current()));
+        assertNotEquals(initial.getEtag(), feed.current().getEtag());
+    }
+
+    @Test
+    public void testChangesWaitForCommit() {
+        // Arrange
+        when(queryRepository.findByStateTrue()).thenReturn(List.of(query(1L, true)));
+        feed.current();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        feed.queryChanged(query(2L, true));
+        List<Long> beforeCommit = ids(feed.current());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        // Assert
+        assertEquals(List.of(1L), beforeCommit);
+        assertEquals(List.of(1L, 2L), ids(feed.current()));
+    }
+
+    @Test
+    public void testExpiredSnapshotIsReloaded() {
+        // Arrange
+        feed = new PublicQueryFeed(queryRepository, new QueryMapperImpl(), 0);
+        when(queryRepository.findByStateTrue())
+                .thenReturn(List.of(query(1L, true)))
+                .thenReturn(List.of(query(1L, true), query(4L, true)));
+
+        // Act
+        feed.current();
+        PublicQueryFeed.Snapshot reloaded = feed.current();
+
+        // Assert
+        assertEquals(List.of(1L, 4L), ids(reloaded));
+        verify(queryRepository, times(2)).findByStateTrue();
+    }
+
+    private List<Long> ids(PublicQueryFeed.Snapshot snapshot) {
+        return snapshot.getQueries().stream().map(QueryDTO::getId).toList();
+    }
+
+    private QueryEntity query(Long id, boolean state) {
+        QueryEntity query = new QueryEntity();
+        query.setId(id);
+        query.setContent("SELECT " + id);
+        query.setState(state);
+        return query;
+    }
+}
@@ -13,8 +13,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.example.demo.dto.CommentDTO;
 import com.example.demo.entities.CommentEntity;
 import com.example.demo.entities.QueryEntity;
+import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
 import com.example.demo.repositories.CommentRepository;
@@ -51,6 +53,7 @@ public class QueryCommentServiceTest {
         CommentEntity comment = new CommentEntity();
         comment.setId(commentId);
         comment.setContent("This is a comment");
+        comment.setUser(user(1L));
 
         when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
@@ -58,7 +61,7 @@ public class QueryCommentServiceTest {
         when(queryRepository.save(query)).thenReturn(query);
 
         // Act
-        CommentEntity addedComment = queryCommentService.addCommentToQuery(queryId, commentId);
+        CommentEntity addedComment = queryCommentService.addCommentToQuery(1L, queryId, commentId);
 
         // Assert
         assertNotNull(addedComment);
@@ -67,6 +70,28 @@ public class QueryCommentServiceTest {
         assertEquals("This is a comment", addedComment.getContent());
     }
 
+    @Test
+    public void testAddCommentOfAnotherUser() {
+        // Arrange
+        Long queryId = 1L;
+        Long commentId = 1L;
+
+        QueryEntity query = new QueryEntity();
+        query.setId(queryId);
+
+        CommentEntity comment = new CommentEntity();
+        comment.setId(commentId);
+        comment.setContent("This is a comment");
+        comment.setUser(user(1L));
+
+        when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryCommentService.addCommentToQuery(2L, queryId, commentId));
+        assertNull(comment.getQuery());
+    }
+
     @Test
     public void testAddCommentToQueryWithEmptyContent() {
         // Arrange
@@ -84,7 +109,7 @@ public class QueryCommentServiceTest {
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
 
         // Act & Assert
-        assertThrows(IllegalOperationException.class, () -> queryCommentService.addCommentToQuery(queryId, commentId));
+        assertThrows(IllegalOperationException.class, () -> queryCommentService.addCommentToQuery(1L, queryId, commentId));
     }
 
     @Test
@@ -96,7 +121,7 @@ public class QueryCommentServiceTest {
         when(queryRepository.findById(queryId)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> queryCommentService.addCommentToQuery(queryId, commentId));
+        assertThrows(EntityNotFoundException.class, () -> queryCommentService.addCommentToQuery(1L, queryId, commentId));
     }
 
     @Test
@@ -112,7 +137,7 @@ public class QueryCommentServiceTest {
         when(commentRepository.findById(commentId)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> queryCommentService.addCommentToQuery(queryId, commentId));
+        assertThrows(EntityNotFoundException.class, () -> queryCommentService.addCommentToQuery(1L, queryId, commentId));
     }
 
     @Test
@@ -127,18 +152,69 @@ public class QueryCommentServiceTest {
         CommentEntity comment = new CommentEntity();
         comment.setId(commentId);
         comment.setQuery(query);
+        comment.setUser(user(1L));
 
         when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
 
         // Act
-        queryCommentService.removeCommentFromQuery(queryId, commentId);
+        queryCommentService.removeCommentFromQuery(1L, queryId, commentId);
 
         // Assert
         assertTrue(query.getComments().isEmpty());
         verify(commentRepository, times(1)).delete(comment);
     }
 
+    @Test
+    public void testQueryOwnerRemovesAnotherUsersComment() throws EntityNotFoundException, IllegalOperationException {
+        // Arrange
+        Long queryId = 1L;
+        Long commentId = 1L;
+
+        QueryEntity query = new QueryEntity();
+        query.setId(queryId);
+        query.setUser(user(2L));
+        query.setComments(new ArrayList<>());
+
+        CommentEntity comment = new CommentEntity();
+        comment.setId(commentId);
+        comment.setQuery(query);
+        comment.setUser(user(1L));
+        query.getComments().add(comment);
+
+        when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
+
+        // Act
+        queryCommentService.removeCommentFromQuery(2L, queryId, commentId);
+
+        // Assert
+        verify(commentRepository, times(1)).delete(comment);
+    }
+
+    @Test
+    public void testRemoveCommentFromQueryOfAnotherUser() {
+        // Arrange
+        Long queryId = 1L;
+        Long commentId = 1L;
+
+        QueryEntity query = new QueryEntity();
+        query.setId(queryId);
+        query.setUser(user(2L));
+
+        CommentEntity comment = new CommentEntity();
+        comment.setId(commentId);
+        comment.setQuery(query);
+        comment.setUser(user(1L));
+
+        when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryCommentService.removeCommentFromQuery(3L, queryId, commentId));
+        verify(commentRepository, never()).delete(any());
+    }
+
     @Test
     public void testRemoveCommentFromQueryWithQueryNotFound() {
         // Arrange
@@ -148,7 +224,7 @@ public class QueryCommentServiceTest {
         when(queryRepository.findById(queryId)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> queryCommentService.removeCommentFromQuery(queryId, commentId));
+        assertThrows(EntityNotFoundException.class, () -> queryCommentService.removeCommentFromQuery(1L, queryId, commentId));
     }
 
     @Test
@@ -164,7 +240,7 @@ public class QueryCommentServiceTest {
         when(commentRepository.findById(commentId)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> queryCommentService.removeCommentFromQuery(queryId, commentId));
+        assertThrows(EntityNotFoundException.class, () -> queryCommentService.removeCommentFromQuery(1L, queryId, commentId));
     }
 
     @Test
@@ -184,7 +260,7 @@ public class QueryCommentServiceTest {
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
 
         // Act & Assert
-        assertThrows(IllegalOperationException.class, () -> queryCommentService.removeCommentFromQuery(queryId, commentId));
+        assertThrows(IllegalOperationException.class, () -> queryCommentService.removeCommentFromQuery(1L, queryId, commentId));
     }
 
     @Test
@@ -226,5 +302,39 @@ public class QueryCommentServiceTest {
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> queryCommentService.getCommentsByQuery(queryId));
     }
-}
 
+    @Test
+    public void testGetCommentDTOsByQuery() throws EntityNotFoundException {
+        // Arrange
+        Long queryId = 1L;
+        List<CommentDTO> projected = List.of(new CommentDTO(20L, "First"), new CommentDTO(21L, "Second"));
+
+        when(queryRepository.existsById(queryId)).thenReturn(true);
+        when(commentRepository.findDTOsByQueryId(queryId)).thenReturn(projected);
+
+        // Act
+        List<CommentDTO> result = queryCommentService.getCommentDTOsByQuery(queryId);
+
+        // Assert
+        assertEquals(projected, result);
+        verify(queryRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetCommentDTOsByQueryWithNonExistentQuery() {
+        // Arrange
+        Long queryId = 1L;
+
+        when(queryRepository.existsById(queryId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> queryCommentService.getCommentDTOsByQuery(queryId));
+        verify(commentRepository, never()).findDTOsByQueryId(any());
+    }
+
+    private UserEntity user(Long id) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.example.demo.dto.QueryJobDTO;
+import com.example.demo.dto.QueryJobResultDTO;
+import com.example.demo.dto.QueryJobState;
+import com.example.demo.exceptions.EntityNotFoundException;
+import com.example.demo.exceptions.IllegalOperationException;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+import com.google.cloud.bigquery.QueryStage;
+import com.google.cloud.bigquery.TableResult;
+
+public class QueryJobServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private BigQueryClient bigQueryClient;
+
+    @Mock
+    private TableResult tableResult;
+
+    private QueryJobService queryJobService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        queryJobService = new QueryJobService(queryService, bigQueryClient, 1, 1, 30, 2, false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queryJobService.shutdown();
+    }
+
+    @Test
+    public void testSubmitAndFetchResults() throws Exception {
+        // Arrange
+        List<Map<String, Object>> rows = List.of(Map.of("id", "2"), Map.of("id", "3"));
+        when(tableResult.getTotalRows()).thenReturn(5L);
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenReturn(tableResult);
+        when(queryService.getJobRows(any(JobId.class), eq(2L), eq(2))).thenReturn(rows);
+
+        // Act
+        QueryJobDTO submitted = queryJobService.submit(USER_ID, "SELECT 1");
+        QueryJobDTO finished = awaitState(submitted.getId(), QueryJobState.DONE);
+        QueryJobResultDTO page = queryJobService.getResults(USER_ID, submitted.getId(), 1, 2);
+
+        // Assert
+        assertEquals(5L, finished.getTotalRows());
+        assertEquals(5, page.getTotalRows());
+        assertEquals(rows, page.getRows());
+        verify(queryService, never()).convertToDTO(any());
+    }
+
+    @Test
+    public void testPageBeyondLastRowSkipsBigQuery() throws Exception {
+        // Arrange
+        when(tableResult.getTotalRows()).thenReturn(3L);
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenReturn(tableResult);
+
+        // Act
+        QueryJobDTO submitted = queryJobService.submit(USER_ID, "SELECT 1");
+        awaitState(submitted.getId(), QueryJobState.DONE);
+        QueryJobResultDTO page = queryJobService.getResults(USER_ID, submitted.getId(), 5, 10);
+
+        // Assert
+        assertTrue(page.getRows().isEmpty());
+        verify(queryService, never()).getJobRows(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testOldestFinishedJobsAreEvicted() throws Exception {
+        // Arrange
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenReturn(tableResult);
+
+        // Act: con un máximo de 2 jobs, el tercero desplaza al primero ya terminado
+        QueryJobDTO first = queryJobService.submit(USER_ID, "SELECT 1");
+        awaitState(first.getId(), QueryJobState.DONE);
+        QueryJobDTO second = queryJobService.submit(USER_ID, "SELECT 1");
+        awaitState(second.getId(), QueryJobState.DONE);
+        queryJobService.submit(USER_ID, "SELECT 1");
+
+        // Assert
+        assertThrows(EntityNotFoundException.class, () -> queryJobService.getJob(USER_ID, first.getId()));
+        assertEquals(QueryJobState.DONE, queryJobService.getJob(USER_ID, second.getId()).getState());
+    }
+
+    @Test
+    public void testFailedJobKeepsError() throws Exception {
+        // Arrange
+        when(queryService.executeQuery(eq(USER_ID), eq("SELEC 1"), any(JobId.class))).thenThrow(new IllegalOperationException("Syntax error"));
+
+        // Act
+        QueryJobDTO submitted = queryJobService.submit(USER_ID, "SELEC 1");
+        QueryJobDTO failed = awaitState(submitted.getId(), QueryJobState.FAILED);
+
+        // Assert
+        assertEquals("Syntax error", failed.getError());
+        assertThrows(IllegalOperationException.class, () -> queryJobService.getResults(USER_ID, submitted.getId(), 0, 10));
+    }
+
+    @Test
+    public void testCancelRunningJob() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(10_000);
+            return tableResult;
+        });
+
+        // Act
+        QueryJobDTO submitted = queryJobService.submit(USER_ID, "SELECT 1");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queryJobService.cancel(USER_ID, submitted.getId());
+
+        // Assert
+        assertEquals(QueryJobState.CANCELLED, queryJobService.getJob(USER_ID, submitted.getId()).getState());
+        verify(bigQueryClient).cancel(JobId.of(submitted.getId()));
+    }
+
+    @Test
+    public void testSubmitRejectedWhenQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return tableResult;
+        });
+
+        try {
+            // Act: un job ocupa el hilo, otro la cola y el tercero se rechaza
+            queryJobService.submit(USER_ID, "SELECT 1");
+            queryJobService.submit(USER_ID, "SELECT 1");
+
+            // Assert
+            assertThrows(RejectedExecutionException.class, () -> queryJobService.submit(USER_ID, "SELECT 1"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testOtherUserCannotReadOrCancelJob() throws Exception {
+        // Arrange
+        when(tableResult.getTotalRows()).thenReturn(5L);
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenReturn(tableResult);
+        QueryJobDTO submitted = queryJobService.submit(USER_ID, "SELECT 1");
+        awaitState(submitted.getId(), QueryJobState.DONE);
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryJobService.getJob(8L, submitted.getId()));
+        assertThrows(IllegalOperationException.class, () -> queryJobService.getResults(8L, submitted.getId(), 0, 10));
+        assertThrows(IllegalOperationException.class, () -> queryJobService.getJob(null, submitted.getId()));
+        assertThrows(IllegalOperationException.class, () -> queryJobService.cancel(8L, submitted.getId()));
+        verify(queryService, never()).getJobRows(any(), anyLong(), anyInt());
+        verify(bigQueryClient, never()).cancel(any());
+    }
+
+    @Test
+    public void testRunningJobReportsStageProgress() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(queryService.executeQuery(eq(USER_ID), eq("SELECT 1"), any(JobId.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return tableResult;
+        });
+        QueryStage done = mock(QueryStage.class);
+        when(done.getStatus()).thenReturn("COMPLETE");
+        QueryStage running = mock(QueryStage.class);
+        when(running.getStatus()).thenReturn("RUNNING");
+        QueryStatistics statistics = mock(QueryStatistics.class);
+        when(statistics.getQueryPlan()).thenReturn(List.of(done, done, running));
+        when(bigQueryClient.getStatistics(any(JobId.class))).thenReturn(statistics);
+
+        try {
+            // Act
+            QueryJobDTO submitted = queryJobService.submit(USER_ID, "SELECT 1");
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            QueryJobDTO job = queryJobService.getJob(USER_ID, submitted.getId());
+
+            // Assert
+            assertEquals(QueryJobState.RUNNING, job.getState());
+            assertEquals(2, job.getCompletedStages());
+            assertEquals(3, job.getTotalStages());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testGetJobNotFound() {
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> queryJobService.getJob(USER_ID, "missing"));
+    }
+
+    private QueryJobDTO awaitState(String jobId, QueryJobState state) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        QueryJobDTO job = queryJobService.getJob(USER_ID, jobId);
+        while (job.getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = queryJobService.getJob(USER_ID, jobId);
+        }
+        assertEquals(state, job.getState());
+        return job;
+    }
+}
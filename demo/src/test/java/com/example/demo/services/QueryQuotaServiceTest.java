@@ -0,0 +1,227 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.dto.QueryUsageDTO;
+import com.example.demo.entities.QueryUsageEntity;
+import com.example.demo.entities.UserEntity;
+import com.example.demo.exceptions.EntityNotFoundException;
+import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.exceptions.QuotaExceededException;
+import com.example.demo.repositories.QueryUsageRepository;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.services.QueryQuotaService.Reservation;
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.JobStatistics.QueryStatistics;
+import com.google.cloud.bigquery.QueryJobConfiguration;
+
+public class QueryQuotaServiceTest {
+
+    private static final long MAX_BYTES_PER_QUERY = 1_000;
+    private static final long DAILY_BYTES_PER_USER = 5_000;
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Mock
+    private QueryUsageRepository queryUsageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BigQueryClient bigQueryClient;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private QueryQuotaService queryQuotaService;
+
+    private final QueryJobConfiguration configuration = QueryJobConfiguration.newBuilder("SELECT * FROM t").build();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Las 22:00 UTC: faltan dos horas para que se reinicie el presupuesto
+        Clock clock = Clock.fixed(Instant.parse("2026-10-18T22:00:00Z"), ZoneOffset.UTC);
+        queryQuotaService = new QueryQuotaService(queryUsageRepository, userRepository, bigQueryClient, transactionManager,
+                MAX_BYTES_PER_QUERY, DAILY_BYTES_PER_USER, clock);
+        when(userRepository.existsById(7L)).thenReturn(true);
+    }
+
+    @Test
+    public void testAuthorizeReservesEstimateWithinBudget() throws Exception {
+        // Arrange
+        dryRunEstimates(800L);
+        when(queryUsageRepository.reserve(7L, TODAY, 800L, DAILY_BYTES_PER_USER)).thenReturn(1);
+
+        // Act
+        Reservation reservation = queryQuotaService.authorize(7L, configuration);
+
+        // Assert
+        assertEquals("SELECT * FROM t", reservation.configuration().getQuery());
+        assertEquals(MAX_BYTES_PER_QUERY, reservation.configuration().getMaximumBytesBilled());
+        assertEquals(7L, reservation.userId());
+        assertEquals(TODAY, reservation.usageDate());
+        assertEquals(800L, reservation.reservedBytes());
+        verify(queryUsageRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testAuthorizeRejectsQueryAboveMaximum() throws Exception {
+        // Arrange
+        dryRunEstimates(MAX_BYTES_PER_QUERY + 1);
+
+        // Act & Assert: no es un problema de cuota, reintentar no sirve
+        IllegalOperationException ex = assertThrows(IllegalOperationException.class, () -> queryQuotaService.authorize(7L, configuration));
+        assertFalse(ex instanceof QuotaExceededException);
+        verifyNoInteractions(queryUsageRepository);
+    }
+
+    @Test
+    public void testAuthorizeRejectsWhenDailyBudgetIsExhausted() throws Exception {
+        // Arrange: 4.000 facturados y 500 reservados por otra query en curso
+        dryRunEstimates(800L);
+        usageToday(4_000L, 500L);
+        when(queryUsageRepository.reserve(7L, TODAY, 800L, DAILY_BYTES_PER_USER)).thenReturn(0);
+        when(queryUsageRepository.existsByUserIdAndUsageDate(7L, TODAY)).thenReturn(true);
+
+        // Act & Assert
+        QuotaExceededException ex = assertThrows(QuotaExceededException.class, () -> queryQuotaService.authorize(7L, configuration));
+        assertEquals(2 * 60 * 60, ex.getRetryAfterSeconds());
+        assertTrue(ex.getMessage().contains("quedan 500 hoy"), ex.getMessage());
+        verify(queryUsageRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testAuthorizeCreatesFirstRowOfTheDayWithReservation() throws Exception {
+        // Arrange
+        dryRunEstimates(800L);
+        when(queryUsageRepository.reserve(7L, TODAY, 800L, DAILY_BYTES_PER_USER)).thenReturn(0);
+        when(userRepository.getReferenceById(7L)).thenReturn(new UserEntity());
+
+        // Act
+        queryQuotaService.authorize(7L, configuration);
+
+        // Assert
+        ArgumentCaptor<QueryUsageEntity> usage = ArgumentCaptor.forClass(QueryUsageEntity.class);
+        verify(queryUsageRepository).saveAndFlush(usage.capture());
+        assertEquals(TODAY, usage.getValue().getUsageDate());
+        assertEquals(800L, usage.getValue().getReservedBytes());
+        assertEquals(0L, usage.getValue().getBytesBilled());
+        assertEquals(0, usage.getValue().getQueryCount());
+    }
+
+    @Test
+    public void testAuthorizeRetriesWhenFirstRowWasCreatedConcurrently() throws Exception {
+        // Arrange: otra query del usuario ha insertado la fila del día entre el update y el insert
+        dryRunEstimates(800L);
+        when(queryUsageRepository.reserve(7L, TODAY, 800L, DAILY_BYTES_PER_USER)).thenReturn(0, 1);
+        when(userRepository.getReferenceById(7L)).thenReturn(new UserEntity());
+        when(queryUsageRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_query_usage_user_date"));
+
+        // Act
+        Reservation reservation = queryQuotaService.authorize(7L, configuration);
+
+        // Assert
+        assertEquals(800L, reservation.reservedBytes());
+        verify(queryUsageRepository, times(2)).reserve(7L, TODAY, 800L, DAILY_BYTES_PER_USER);
+    }
+
+    @Test
+    public void testAuthorizeRequiresUser() {
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryQuotaService.authorize(null, configuration));
+        verifyNoInteractions(bigQueryClient, queryUsageRepository);
+    }
+
+    @Test
+    public void testAuthorizeUnknownUser() {
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> queryQuotaService.authorize(8L, configuration));
+        verifyNoInteractions(bigQueryClient);
+    }
+
+    @Test
+    public void testAuthorizeWithInvalidSql() throws Exception {
+        // Arrange
+        when(bigQueryClient.dryRun(any(QueryJobConfiguration.class))).thenThrow(new BigQueryException(400, "Syntax error"));
+
+        // Act & Assert
+        IllegalOperationException ex = assertThrows(IllegalOperationException.class, () -> queryQuotaService.authorize(7L, configuration));
+        assertEquals("Syntax error", ex.getMessage());
+    }
+
+    @Test
+    public void testRecordUsageReplacesReservationWithBilledBytes() {
+        // Arrange: la reserva es de ayer; el job ha terminado pasada la medianoche
+        JobId jobId = JobId.of("job-1");
+        QueryStatistics statistics = mock(QueryStatistics.class);
+        when(statistics.getTotalBytesBilled()).thenReturn(300L);
+        when(bigQueryClient.getStatistics(jobId)).thenReturn(statistics);
+        Reservation reservation = new Reservation(7L, TODAY.minusDays(1), 800L, configuration);
+
+        // Act
+        queryQuotaService.recordUsage(reservation, jobId);
+
+        // Assert
+        verify(queryUsageRepository).settleUsage(7L, TODAY.minusDays(1), 300L, 800L);
+    }
+
+    @Test
+    public void testReleaseReturnsReservation() {
+        // Act
+        queryQuotaService.release(new Reservation(7L, TODAY, 800L, configuration));
+
+        // Assert
+        verify(queryUsageRepository).releaseReservation(7L, TODAY, 800L);
+        verify(queryUsageRepository, never()).settleUsage(anyLong(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testGetUsage() throws Exception {
+        // Arrange
+        usageToday(1_200L, 300L);
+
+        // Act
+        QueryUsageDTO usage = queryQuotaService.getUsage(7L);
+
+        // Assert
+        assertEquals(TODAY, usage.getDate());
+        assertEquals(1_200L, usage.getBytesBilled());
+        assertEquals(300L, usage.getReservedBytes());
+        assertEquals(DAILY_BYTES_PER_USER - 1_500L, usage.getRemainingBytes());
+        assertEquals(MAX_BYTES_PER_QUERY, usage.getMaxBytesPerQuery());
+    }
+
+    private void dryRunEstimates(long bytes) throws Exception {
+        QueryStatistics statistics = mock(QueryStatistics.class);
+        when(statistics.getTotalBytesProcessed()).thenReturn(bytes);
+        when(bigQueryClient.dryRun(any(QueryJobConfiguration.class))).thenReturn(statistics);
+    }
+
+    private void usageToday(long bytesBilled, long reservedBytes) {
+        QueryUsageEntity usage = new QueryUsageEntity();
+        usage.setUsageDate(TODAY);
+        usage.setBytesBilled(bytesBilled);
+        usage.setReservedBytes(reservedBytes);
+        usage.setQueryCount(3);
+        when(queryUsageRepository.findByUserIdAndUsageDate(7L, TODAY)).thenReturn(Optional.of(usage));
+    }
+}
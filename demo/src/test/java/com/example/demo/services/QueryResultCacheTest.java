@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.QueryCacheStatsDTO;
+
+public class QueryResultCacheTest {
+
+    private QueryResultCache queryResultCache;
+
+    @BeforeEach
+    public void setUp() {
+        queryResultCache = new QueryResultCache(true, 1024 * 1024, 64 * 1024, 60);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("SELECT a FROM t WHERE b = 'x  y'",
+                QueryResultCache.normalize("  SELECT a\n  FROM t\tWHERE b = 'x  y' ;\n"));
+    }
+
+    @Test
+    public void testGetReturnsCachedResultForEquivalentSql() {
+        // Arrange
+        BigQueryResultDTO dto = resultWithRows(3);
+        queryResultCache.put("SELECT *  FROM t;", "format=rows", dto);
+
+        // Act
+        BigQueryResultDTO cached = queryResultCache.get("SELECT * FROM t", "format=rows", BigQueryResultDTO.class);
+
+        // Assert
+        assertSame(dto, cached);
+        assertNull(queryResultCache.get("SELECT * FROM t", "format=columnar", BigQueryResultDTO.class));
+        QueryCacheStatsDTO stats = queryResultCache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    public void testInvalidateRemovesAllParameterVariants() {
+        // Arrange
+        queryResultCache.put("SELECT * FROM t", "format=rows", resultWithRows(1));
+        queryResultCache.put("SELECT * FROM t", "format=other", resultWithRows(1));
+        queryResultCache.put("SELECT * FROM u", "format=rows", resultWithRows(1));
+
+        // Act
+        queryResultCache.invalidate("SELECT *\nFROM t");
+
+        // Assert
+        assertNull(queryResultCache.get("SELECT * FROM t", "format=rows", BigQueryResultDTO.class));
+        assertNull(queryResultCache.get("SELECT * FROM t", "format=other", BigQueryResultDTO.class));
+        assertNotNull(queryResultCache.get("SELECT * FROM u", "format=rows", BigQueryResultDTO.class));
+    }
+
+    @Test
+    public void testOversizedResultIsNotCached() {
+        // Act
+        queryResultCache.put("SELECT * FROM big", "format=rows", resultWithRows(5000));
+
+        // Assert
+        assertNull(queryResultCache.get("SELECT * FROM big", "format=rows", BigQueryResultDTO.class));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        // Arrange
+        QueryResultCache disabled = new QueryResultCache(false, 1024 * 1024, 64 * 1024, 60);
+
+        // Act
+        disabled.put("SELECT 1", "format=rows", resultWithRows(1));
+
+        // Assert
+        assertNull(disabled.get("SELECT 1", "format=rows", BigQueryResultDTO.class));
+    }
+
+    private BigQueryResultDTO resultWithRows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", String.valueOf(i));
+            row.put("name", "row-" + i);
+            rows.add(row);
+        }
+        BigQueryResultDTO dto = new BigQueryResultDTO();
+        dto.setRows(rows);
+        return dto;
+    }
+}
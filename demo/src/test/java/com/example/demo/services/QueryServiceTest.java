@@ -3,34 +3,62 @@ package com.example.demo.services;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.example.demo.dto.BigQueryPageDTO;
 import com.example.demo.dto.BigQueryResultDTO;
+import com.example.demo.dto.ColumnarResultDTO;
 import com.example.demo.entities.QueryEntity;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
 import com.example.demo.exceptions.IllegalOperationException;
+import com.example.demo.exceptions.QuotaExceededException;
 import com.example.demo.repositories.QueryRepository;
+import com.example.demo.repositories.QueryRepository.OwnerAndContent;
 import com.example.demo.repositories.UserRepository;
+import com.example.demo.security.TokenService;
+import com.example.demo.services.QueryQuotaService.Reservation;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.bigquery.BigQuery;
+import com.google.cloud.bigquery.BigQueryException;
+import com.google.cloud.bigquery.JobId;
+import com.google.cloud.bigquery.QueryJobConfiguration;
 import com.google.cloud.bigquery.TableResult;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
+import com.google.cloud.bigquery.Field;
 import com.google.cloud.bigquery.FieldValue;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.Schema;
+import com.google.cloud.bigquery.StandardSQLTypeName;
 
 @Slf4j
 public class QueryServiceTest {
@@ -47,18 +75,43 @@ public class QueryServiceTest {
     @Mock
     private BigQuery bigQuery;
 
+    @Mock
+    private BigQueryClient bigQueryClient;
+
+    @Mock
+    private QueryResultCache queryResultCache;
+
+    @Mock
+    private BigQueryMetrics bigQueryMetrics;
+
+    @Mock
+    private PublicQueryFeed publicQueryFeed;
+
+    @Mock
+    private QueryQuotaService queryQuotaService;
+
+    @Mock
+    private BulkDeleteService bulkDeleteService;
+
     @Mock
     private TableResult tableResult;
 
     @Mock
     private ResourceLoader resourceLoader;
 
+    // Real: firma y verifica los tokens de paginación
+    @Spy
+    private TokenService tokenService = new TokenService(Base64.getEncoder().encodeToString(new byte[32]), 3600);
+
     @InjectMocks
     private QueryService queryService;
 
     @BeforeEach
-    public void setUp() {
+    public void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
+        // Sin límites: la cuota reserva 0 bytes y devuelve la misma configuración
+        when(queryQuotaService.authorize(any(), any(QueryJobConfiguration.class))).thenAnswer(invocation ->
+                new Reservation(invocation.getArgument(0), LocalDate.of(2026, 10, 18), 0L, invocation.getArgument(1)));
     }
 
     @Test
@@ -175,6 +228,7 @@ public class QueryServiceTest {
         existingQuery.setId(queryId);
         existingQuery.setContent("SELECT * FROM table");
         existingQuery.setState(true);
+        existingQuery.setUser(owner(1L));
 
         QueryEntity updatedQuery = new QueryEntity();
         updatedQuery.setId(queryId);
@@ -185,13 +239,15 @@ public class QueryServiceTest {
         when(queryRepository.save(existingQuery)).thenReturn(existingQuery);
 
         // Act
-        QueryEntity modifiedQuery = queryService.updateQuery(queryId, updatedQuery);
+        QueryEntity modifiedQuery = queryService.updateQuery(1L, queryId, updatedQuery);
 
         // Assert
         assertNotNull(modifiedQuery);
         assertEquals(queryId, modifiedQuery.getId());
         assertEquals("SELECT * FROM new_table", modifiedQuery.getContent());
         assertFalse(modifiedQuery.getState());
+        verify(queryResultCache).invalidate("SELECT * FROM table");
+        verify(queryResultCache).invalidate("SELECT * FROM new_table");
     }
 
     @Test
@@ -202,6 +258,7 @@ public class QueryServiceTest {
         existingQuery.setId(queryId);
         existingQuery.setContent("SELECT * FROM table");
         existingQuery.setState(true);
+        existingQuery.setUser(owner(1L));
 
         QueryEntity updatedQuery = new QueryEntity();
         updatedQuery.setId(queryId);
@@ -211,7 +268,7 @@ public class QueryServiceTest {
         when(queryRepository.findById(queryId)).thenReturn(java.util.Optional.of(existingQuery));
 
         // Act & Assert
-        assertThrows(IllegalOperationException.class, () -> queryService.updateQuery(queryId, updatedQuery));
+        assertThrows(IllegalOperationException.class, () -> queryService.updateQuery(1L, queryId, updatedQuery));
     }
 
     @Test
@@ -222,6 +279,7 @@ public class QueryServiceTest {
         existingQuery.setId(queryId);
         existingQuery.setContent("SELECT * FROM table");
         existingQuery.setState(true);
+        existingQuery.setUser(owner(1L));
 
         QueryEntity updatedQuery = new QueryEntity();
         updatedQuery.setId(queryId);
@@ -231,23 +289,44 @@ public class QueryServiceTest {
         when(queryRepository.findById(queryId)).thenReturn(java.util.Optional.of(existingQuery));
 
         // Act & Assert
-        assertThrows(IllegalOperationException.class, () -> queryService.updateQuery(queryId, updatedQuery));
+        assertThrows(IllegalOperationException.class, () -> queryService.updateQuery(1L, queryId, updatedQuery));
     }
 
     @Test
-    public void testDeleteQuery() throws EntityNotFoundException {
+    public void testUpdateQueryOfAnotherUser() {
         // Arrange
         Long queryId = 1L;
-        QueryEntity query = new QueryEntity();
-        query.setId(queryId);
+        QueryEntity existingQuery = new QueryEntity();
+        existingQuery.setId(queryId);
+        existingQuery.setContent("SELECT * FROM table");
+        existingQuery.setState(true);
+        existingQuery.setUser(owner(1L));
 
-        when(queryRepository.findById(queryId)).thenReturn(java.util.Optional.of(query));
+        QueryEntity updatedQuery = new QueryEntity();
+        updatedQuery.setContent("SELECT * FROM new_table");
+        updatedQuery.setState(false);
+
+        when(queryRepository.findById(queryId)).thenReturn(java.util.Optional.of(existingQuery));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryService.updateQuery(2L, queryId, updatedQuery));
+        assertEquals("SELECT * FROM table", existingQuery.getContent());
+        verify(queryRepository, never()).save(any());
+    }
+
+    @Test
+    public void testDeleteQuery() throws EntityNotFoundException, IllegalOperationException {
+        // Arrange
+        Long queryId = 1L;
+
+        when(queryRepository.findOwnerAndContentById(queryId)).thenReturn(java.util.Optional.of(ownerAndContent(1L, "SELECT 1")));
 
         // Act
-        queryService.deleteQuery(queryId);
+        queryService.deleteQuery(1L, queryId);
 
         // Assert (verify that delete was called)
-        verify(queryRepository, times(1)).delete(query);
+        verify(bulkDeleteService, times(1)).deleteQuery(queryId);
+        verify(queryResultCache).invalidate("SELECT 1");
     }
 
     @Test
@@ -255,10 +334,37 @@ public class QueryServiceTest {
         // Arrange
         Long queryId = 1L;
 
-        when(queryRepository.findById(queryId)).thenReturn(java.util.Optional.empty());
+        when(queryRepository.findOwnerAndContentById(queryId)).thenReturn(java.util.Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> queryService.deleteQuery(queryId));
+        assertThrows(EntityNotFoundException.class, () -> queryService.deleteQuery(1L, queryId));
+    }
+
+    @Test
+    public void testDeleteQueryOfAnotherUser() {
+        // Arrange
+        Long queryId = 1L;
+
+        when(queryRepository.findOwnerAndContentById(queryId)).thenReturn(java.util.Optional.of(ownerAndContent(1L, "SELECT 1")));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryService.deleteQuery(2L, queryId));
+        verify(bulkDeleteService, never()).deleteQuery(any());
+        verify(queryResultCache, never()).invalidate(any());
+    }
+
+    private static OwnerAndContent ownerAndContent(Long userId, String content) {
+        return new OwnerAndContent() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getContent() {
+                return content;
+            }
+        };
     }
 
     @Test
@@ -274,5 +380,324 @@ public class QueryServiceTest {
         assertNotNull(dto.getRows());
         assertTrue(dto.getRows().isEmpty());
     }
-}
 
+    @Test
+    public void testExecuteQuery() throws Exception {
+        // Arrange
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class))).thenReturn(tableResult);
+
+        // Act
+        TableResult result = queryService.executeQuery(7L, "SELECT 1");
+
+        // Assert
+        assertSame(tableResult, result);
+        verify(bigQueryClient, times(1)).query(eq(QueryJobConfiguration.newBuilder("SELECT 1").build()), any(JobId.class));
+        verify(queryQuotaService).authorize(7L, QueryJobConfiguration.newBuilder("SELECT 1").build());
+        verify(queryQuotaService).recordUsage(any(Reservation.class), any(JobId.class));
+        verify(bigQueryMetrics).recordSuccess(any(), eq(BigQueryMetrics.EXECUTE));
+        verify(bigQueryMetrics).recordRows(eq(BigQueryMetrics.EXECUTE), anyLong());
+    }
+
+    @Test
+    public void testExecuteQueryWithEmptyContent() throws Exception {
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryService.executeQuery(7L, "   "));
+        verifyNoInteractions(bigQueryClient, queryQuotaService);
+    }
+
+    @Test
+    public void testExecuteQueryWithBigQueryError() throws Exception {
+        // Arrange
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class))).thenThrow(new BigQueryException(400, "Syntax error"));
+
+        // Act & Assert
+        IllegalOperationException ex = assertThrows(IllegalOperationException.class, () -> queryService.executeQuery(7L, "SELEC 1"));
+        assertEquals("Syntax error", ex.getMessage());
+        verify(bigQueryMetrics).recordFailure(any(), eq(BigQueryMetrics.EXECUTE), any(BigQueryException.class));
+        verify(bigQueryMetrics, never()).recordSuccess(any(), anyString());
+        // El job no ha llegado a ejecutarse: la reserva vuelve al presupuesto
+        verify(queryQuotaService).release(any(Reservation.class));
+        verify(queryQuotaService, never()).recordUsage(any(), any());
+    }
+
+    @Test
+    public void testExecuteQueryRecordsUsageForUser() throws Exception {
+        // Arrange
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class))).thenReturn(tableResult);
+
+        // Act
+        queryService.executeQuery(7L, "SELECT 1");
+
+        // Assert: el consumo se anota al usuario con el mismo job que se ha ejecutado
+        ArgumentCaptor<JobId> jobId = ArgumentCaptor.forClass(JobId.class);
+        verify(bigQueryClient).query(any(QueryJobConfiguration.class), jobId.capture());
+        verify(queryQuotaService).authorize(eq(7L), any(QueryJobConfiguration.class));
+        ArgumentCaptor<Reservation> reservation = ArgumentCaptor.forClass(Reservation.class);
+        verify(queryQuotaService).recordUsage(reservation.capture(), eq(jobId.getValue()));
+        assertEquals(7L, reservation.getValue().userId());
+        verify(queryQuotaService, never()).release(any());
+    }
+
+    @Test
+    public void testExecuteQueryRejectedByQuota() throws Exception {
+        // Arrange
+        when(queryQuotaService.authorize(eq(7L), any(QueryJobConfiguration.class)))
+                .thenThrow(new QuotaExceededException("Sin cuota", 60));
+
+        // Act & Assert
+        assertThrows(QuotaExceededException.class, () -> queryService.executeQuery(7L, "SELECT 1"));
+        verifyNoInteractions(bigQueryClient);
+        verify(queryQuotaService, never()).recordUsage(any(), any());
+    }
+
+    @Test
+    public void testGetQueryResultFromCache() throws Exception {
+        // Arrange
+        BigQueryResultDTO cached = new BigQueryResultDTO();
+        when(queryResultCache.get(eq("SELECT 1"), anyString(), eq(BigQueryResultDTO.class))).thenReturn(cached);
+
+        // Act
+        BigQueryResultDTO result = queryService.getQueryResult(7L, "SELECT 1", true);
+
+        // Assert
+        assertSame(cached, result);
+        verifyNoInteractions(bigQueryClient, queryQuotaService);
+    }
+
+    @Test
+    public void testGetQueryResultWithoutCache() throws Exception {
+        // Arrange
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class))).thenReturn(tableResult);
+        when(tableResult.iterateAll()).thenReturn(List.of());
+
+        // Act
+        BigQueryResultDTO result = queryService.getQueryResult(7L, "SELECT 1", false);
+
+        // Assert
+        assertNotNull(result);
+        verify(queryResultCache, never()).get(anyString(), anyString(), any());
+        verify(queryResultCache, never()).put(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testWriteRowsStreamsEveryPage() throws IOException {
+        // Arrange
+        Schema schema = Schema.of(Field.of("id", StandardSQLTypeName.INT64), Field.of("name", StandardSQLTypeName.STRING));
+        TableResult secondPage = mock(TableResult.class);
+        when(tableResult.getSchema()).thenReturn(schema);
+        when(tableResult.getValues()).thenReturn(List.of(row(schema, "1", "a")));
+        when(tableResult.hasNextPage()).thenReturn(true);
+        when(tableResult.getNextPage()).thenReturn(secondPage);
+        when(secondPage.getValues()).thenReturn(List.of(row(schema, "2", null)));
+        when(secondPage.hasNextPage()).thenReturn(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        queryService.writeRows(tableResult, out);
+
+        // Assert
+        assertEquals("{\"id\":\"1\",\"name\":\"a\"}\n{\"id\":\"2\",\"name\":\"null\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(tableResult, never()).iterateAll();
+    }
+
+    @Test
+    public void testConvertToColumnarDTO() {
+        // Arrange
+        Schema schema = Schema.of(Field.of("id", StandardSQLTypeName.INT64), Field.of("score", StandardSQLTypeName.FLOAT64),
+                Field.of("active", StandardSQLTypeName.BOOL), Field.of("name", StandardSQLTypeName.STRING));
+        when(tableResult.getSchema()).thenReturn(schema);
+        when(tableResult.getTotalRows()).thenReturn(2L);
+        when(tableResult.getValues()).thenReturn(List.of(row(schema, "1", "0.5", "true", "a"), row(schema, "2", null, "false", null)));
+        when(tableResult.hasNextPage()).thenReturn(false);
+
+        // Act
+        ColumnarResultDTO dto = queryService.convertToColumnarDTO(tableResult);
+
+        // Assert
+        assertEquals(2, dto.getRowCount());
+        assertEquals(4, dto.getColumns().size());
+        assertArrayEquals(new long[] {1L, 2L}, (long[]) dto.getColumns().get(0).getValues());
+        assertNull(dto.getColumns().get(0).getNulls());
+        assertEquals(0.5, ((double[]) dto.getColumns().get(1).getValues())[0]);
+        assertArrayEquals(new int[] {0b10}, dto.getColumns().get(1).getNulls());
+        assertArrayEquals(new boolean[] {true, false}, (boolean[]) dto.getColumns().get(2).getValues());
+        assertArrayEquals(new String[] {"a", null}, (String[]) dto.getColumns().get(3).getValues());
+        assertEquals("STRING", dto.getColumns().get(3).getType());
+    }
+
+    @Test
+    public void testGetQueryPageReturnsContinuationToken() throws Exception {
+        // Arrange
+        Schema schema = Schema.of(Field.of("id", StandardSQLTypeName.INT64));
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class)))
+                .thenReturn(tableResult);
+        when(tableResult.getSchema()).thenReturn(schema);
+        when(tableResult.getValues()).thenReturn(List.of(row(schema, "1"), row(schema, "2")));
+        when(tableResult.getTotalRows()).thenReturn(5L);
+        when(tableResult.hasNextPage()).thenReturn(true);
+        when(tableResult.getNextPageToken()).thenReturn("bq-token");
+
+        // Act
+        BigQueryPageDTO page = queryService.getQueryPage(7L, "SELECT id FROM t", 2, null);
+
+        // Assert
+        assertEquals(2, page.getRows().size());
+        assertEquals(5L, page.getTotalRows());
+        assertNotNull(page.getNextPageToken());
+        verify(tableResult, never()).getNextPage();
+
+        // Arrange: la siguiente página se pide al mismo job con el token de BigQuery
+        ArgumentCaptor<JobId> jobId = ArgumentCaptor.forClass(JobId.class);
+        verify(bigQueryClient).query(any(QueryJobConfiguration.class), jobId.capture(), any(BigQuery.QueryResultsOption[].class));
+        TableResult lastPage = mock(TableResult.class);
+        when(lastPage.getSchema()).thenReturn(schema);
+        when(lastPage.getValues()).thenReturn(List.of(row(schema, "3")));
+        when(lastPage.hasNextPage()).thenReturn(false);
+        when(bigQueryClient.getQueryResults(eq(jobId.getValue()), any(BigQuery.QueryResultsOption[].class))).thenReturn(lastPage);
+
+        // Act
+        BigQueryPageDTO next = queryService.getQueryPage(7L, null, 2, page.getNextPageToken());
+
+        // Assert
+        assertEquals(List.of(Map.of("id", "3")), next.getRows());
+        assertNull(next.getNextPageToken());
+        verify(bigQueryClient).getQueryResults(jobId.getValue(), BigQuery.QueryResultsOption.pageSize(2),
+                BigQuery.QueryResultsOption.pageToken("bq-token"));
+    }
+
+    @Test
+    public void testGetQueryPageRejectsForgedOrForeignToken() throws Exception {
+        // Arrange
+        Schema schema = Schema.of(Field.of("id", StandardSQLTypeName.INT64));
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class)))
+                .thenReturn(tableResult);
+        when(tableResult.getSchema()).thenReturn(schema);
+        when(tableResult.getValues()).thenReturn(List.of(row(schema, "1")));
+        when(tableResult.hasNextPage()).thenReturn(true);
+        when(tableResult.getNextPageToken()).thenReturn("bq-token");
+        String token = queryService.getQueryPage(7L, "SELECT id FROM t", 1, null).getNextPageToken();
+
+        // Un cliente que cambia el job del token sin poder firmarlo
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("7|otro-job|bq-token".getBytes(StandardCharsets.UTF_8));
+        String forged = forgedPayload + token.substring(token.indexOf('.'));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryService.getQueryPage(8L, null, 1, token));
+        assertThrows(IllegalOperationException.class, () -> queryService.getQueryPage(7L, null, 1, forged));
+        verify(bigQueryClient, never()).getQueryResults(any(JobId.class), any(BigQuery.QueryResultsOption[].class));
+    }
+
+    @Test
+    public void testGetQueryPageWithInvalidToken() {
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryService.getQueryPage(7L, null, 10, "not-a-token"));
+        assertThrows(IllegalOperationException.class, () -> queryService.getQueryPage(7L, "SELECT 1", 0, null));
+    }
+
+    @Test
+    public void testStreamQueryRowsFetchesPagesOnDemand() throws Exception {
+        // Arrange
+        Schema schema = Schema.of(Field.of("id", StandardSQLTypeName.INT64));
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class)))
+                .thenReturn(tableResult);
+        when(tableResult.getSchema()).thenReturn(schema);
+        when(tableResult.getValues()).thenReturn(List.of(row(schema, "1"), row(schema, "2")));
+        when(tableResult.hasNextPage()).thenReturn(true);
+        when(tableResult.getNextPageToken()).thenReturn("bq-token");
+        TableResult lastPage = mock(TableResult.class);
+        when(lastPage.getSchema()).thenReturn(schema);
+        when(lastPage.getValues()).thenReturn(List.of(row(schema, "3")));
+        when(lastPage.hasNextPage()).thenReturn(false);
+        when(bigQueryClient.getQueryResults(any(JobId.class), any(BigQuery.QueryResultsOption[].class))).thenReturn(lastPage);
+
+        // Act
+        Flux<Map<String, Object>> rows = queryService.streamQueryRows(7L, "SELECT id FROM t", 2);
+
+        // Assert: nada se ejecuta hasta que hay demanda, y la segunda página solo al agotar la primera
+        verifyNoInteractions(bigQueryClient);
+        StepVerifier.create(rows, 1)
+                .expectNext(Map.of("id", "1"))
+                .then(() -> assertEquals(1, mockingDetails(bigQueryClient).getInvocations().size()))
+                .thenRequest(2)
+                .expectNext(Map.of("id", "2"), Map.of("id", "3"))
+                .verifyComplete();
+        verify(bigQueryClient).getQueryResults(any(JobId.class), eq(BigQuery.QueryResultsOption.pageSize(2)),
+                eq(BigQuery.QueryResultsOption.pageToken("bq-token")));
+        // La reserva se liquida una sola vez, con la primera página
+        verify(queryQuotaService, times(1)).recordUsage(any(Reservation.class), any(JobId.class));
+        verify(queryQuotaService, never()).release(any());
+    }
+
+    @Test
+    public void testStreamQueryRowsReleasesQuotaWhenFirstPageFails() throws Exception {
+        // Arrange
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class)))
+                .thenThrow(new BigQueryException(400, "Syntax error"));
+
+        // Act & Assert
+        StepVerifier.create(queryService.streamQueryRows(7L, "SELECT id FROM t", 2))
+                .expectErrorMatches(e -> Exceptions.unwrap(e) instanceof IllegalOperationException)
+                .verify();
+        verify(queryQuotaService).release(any(Reservation.class));
+        verify(queryQuotaService, never()).recordUsage(any(), any());
+    }
+
+    @Test
+    public void testStreamQueryRowsStopsFetchingWhenCancelled() throws Exception {
+        // Arrange
+        Schema schema = Schema.of(Field.of("id", StandardSQLTypeName.INT64));
+        when(bigQueryClient.query(any(QueryJobConfiguration.class), any(JobId.class), any(BigQuery.QueryResultsOption[].class)))
+                .thenReturn(tableResult);
+        when(tableResult.getSchema()).thenReturn(schema);
+        when(tableResult.getValues()).thenReturn(List.of(row(schema, "1"), row(schema, "2")));
+        when(tableResult.hasNextPage()).thenReturn(true);
+        when(tableResult.getNextPageToken()).thenReturn("bq-token");
+
+        // Act & Assert
+        StepVerifier.create(queryService.streamQueryRows(7L, "SELECT id FROM t", 2), 1)
+                .expectNext(Map.of("id", "1"))
+                .thenCancel()
+                .verify();
+        verify(bigQueryClient, never()).getQueryResults(any(JobId.class), any(BigQuery.QueryResultsOption[].class));
+    }
+
+    @Test
+    public void testStreamQueryRowsValidatesBeforeSubscribing() {
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> queryService.streamQueryRows(7L, "  ", 10));
+        assertThrows(IllegalOperationException.class, () -> queryService.streamQueryRows(7L, "SELECT 1", 0));
+        verifyNoInteractions(bigQueryClient);
+    }
+
+    private FieldValueList row(Schema schema, String... values) {
+        List<FieldValue> fieldValues = new ArrayList<>();
+        for (String value : values) {
+            fieldValues.add(FieldValue.of(FieldValue.Attribute.PRIMITIVE, value));
+        }
+        return FieldValueList.of(fieldValues, schema.getFields());
+    }
+
+    @Test
+    public void testGetQueriesPageWithTotal() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 1);
+        QueryEntity query = new QueryEntity();
+        query.setId(2L);
+        when(queryRepository.findByStateTrue(pageable)).thenReturn(new PageImpl<>(List.of(query), pageable, 3));
+
+        // Act
+        Slice<QueryEntity> page = queryService.getQueriesPage(pageable, true);
+
+        // Assert
+        assertEquals(3L, ((Page<QueryEntity>) page).getTotalElements());
+        verify(queryRepository, never()).findSliceByStateTrue(any(Pageable.class));
+    }
+
+    private UserEntity owner(Long id) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        return user;
+    }
+}
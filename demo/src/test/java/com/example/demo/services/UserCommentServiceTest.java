@@ -165,6 +165,29 @@ public class UserCommentServiceTest {
         assertThrows(IllegalOperationException.class, () -> userCommentService.removeCommentFromUser(userId, commentId));
     }
 
+    @Test
+    public void testRemoveCommentFromUserDoesNotLoadUser() throws EntityNotFoundException, IllegalOperationException {
+        // Arrange
+        Long userId = 1L;
+        Long commentId = 2L;
+
+        UserEntity owner = new UserEntity();
+        owner.setId(userId);
+
+        CommentEntity comment = new CommentEntity();
+        comment.setId(commentId);
+        comment.setUser(owner);
+
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
+
+        // Act
+        userCommentService.removeCommentFromUser(userId, commentId);
+
+        // Assert
+        verify(commentRepository, times(1)).delete(comment);
+        verify(userRepository, never()).findById(any());
+    }
+
     @Test
     public void testGetCommentsByUser() throws EntityNotFoundException {
         // Arrange
@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.example.demo.dto.QueryDTO;
 import com.example.demo.entities.QueryEntity;
 import com.example.demo.entities.UserEntity;
 import com.example.demo.exceptions.EntityNotFoundException;
@@ -31,6 +32,12 @@ public class UserQueryServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PublicQueryFeed publicQueryFeed;
+
+    @Mock
+    private QueryService queryService;
+
     @InjectMocks
     private UserQueryService userQueryService;
 
@@ -120,71 +127,52 @@ public class UserQueryServiceTest {
         Long userId = 1L;
         Long queryId = 1L;
 
-        UserEntity user = new UserEntity();
-        user.setId(userId);
-
-        QueryEntity query = new QueryEntity();
-        query.setId(queryId);
-        query.setUser(user);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
-
         // Act
         userQueryService.removeQueryFromUser(userId, queryId);
 
         // Assert
-        assertNull(query.getUser());
-        verify(queryRepository, times(1)).delete(query);
-        assertTrue(user.getQueries().isEmpty());
+        verify(queryService, times(1)).deleteQuery(userId, queryId);
     }
 
     @Test
-    public void testRemoveQueryFromUserWithUserNotFound() {
+    public void testRemoveQueryFromUserWithQueryNotFound() throws EntityNotFoundException, IllegalOperationException {
         // Arrange
         Long userId = 1L;
         Long queryId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        doThrow(new EntityNotFoundException("Query not found")).when(queryService).deleteQuery(userId, queryId);
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> userQueryService.removeQueryFromUser(userId, queryId));
     }
 
     @Test
-    public void testRemoveQueryFromUserWithQueryNotFound() {
+    public void testRemoveQueryFromUserWithMismatchedUser() throws EntityNotFoundException, IllegalOperationException {
         // Arrange
         Long userId = 1L;
         Long queryId = 1L;
 
-        UserEntity user = new UserEntity();
-        user.setId(userId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(queryRepository.findById(queryId)).thenReturn(Optional.empty());
+        doThrow(new IllegalOperationException("El query no pertenece al usuario especificado."))
+                .when(queryService).deleteQuery(userId, queryId);
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> userQueryService.removeQueryFromUser(userId, queryId));
+        assertThrows(IllegalOperationException.class, () -> userQueryService.removeQueryFromUser(userId, queryId));
     }
 
     @Test
-    public void testRemoveQueryFromUserWithMismatchedUser() {
+    public void testRemoveQueryFromUserUsesBulkDeletePath() throws EntityNotFoundException, IllegalOperationException {
         // Arrange
         Long userId = 1L;
-        Long queryId = 1L;
+        Long queryId = 2L;
 
-        UserEntity user = new UserEntity();
-        user.setId(userId);
-
-        QueryEntity query = new QueryEntity();
-        query.setId(queryId);
-        query.setUser(new UserEntity()); // Different user
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(queryRepository.findById(queryId)).thenReturn(Optional.of(query));
+        // Act
+        userQueryService.removeQueryFromUser(userId, queryId);
 
-        // Act & Assert
-        assertThrows(IllegalOperationException.class, () -> userQueryService.removeQueryFromUser(userId, queryId));
+        // Assert (ni carga el usuario ni borra el query entidad a entidad)
+        verify(queryService, times(1)).deleteQuery(userId, queryId);
+        verify(userRepository, never()).findById(any());
+        verify(queryRepository, never()).delete(any());
+        verify(queryRepository, never()).findById(any());
     }
 
     @Test
@@ -226,5 +214,84 @@ public class UserQueryServiceTest {
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> userQueryService.getQueriesByUser(userId));
     }
-}
 
+    @Test
+    public void testGetQueryDTOsByUser() throws EntityNotFoundException {
+        // Arrange
+        Long userId = 1L;
+        List<QueryDTO> projected = List.of(new QueryDTO(10L, "SELECT 1", true), new QueryDTO(11L, "SELECT 2", false));
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(queryRepository.findDTOsByUserId(userId)).thenReturn(projected);
+
+        // Act
+        List<QueryDTO> result = userQueryService.getQueryDTOsByUser(userId);
+
+        // Assert
+        assertEquals(projected, result);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetQueryDTOsByUserWithNonExistentUser() {
+        // Arrange
+        Long userId = 1L;
+
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> userQueryService.getQueryDTOsByUser(userId));
+        verify(queryRepository, never()).findDTOsByUserId(any());
+    }
+
+    @Test
+    public void testAddQueriesToUser() throws EntityNotFoundException, IllegalOperationException {
+        // Arrange
+        Long userId = 1L;
+        UserEntity user = new UserEntity();
+        user.setId(userId);
+        user.setQueries(new ArrayList<>());
+
+        List<QueryEntity> queries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            QueryEntity query = new QueryEntity();
+            query.setContent("SELECT " + i);
+            query.setState(true);
+            queries.add(query);
+        }
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(queryRepository.saveAll(queries)).thenReturn(queries);
+
+        // Act
+        List<QueryEntity> saved = userQueryService.addQueriesToUser(userId, queries);
+
+        // Assert
+        assertEquals(3, saved.size());
+        assertTrue(saved.stream().allMatch(query -> query.getUser() == user));
+        assertEquals(3, user.getQueries().size());
+        verify(queryRepository, never()).save(any());
+    }
+
+    @Test
+    public void testAddQueriesToUserWithInvalidQuery() {
+        // Arrange
+        Long userId = 1L;
+        UserEntity user = new UserEntity();
+        user.setId(userId);
+        user.setQueries(new ArrayList<>());
+
+        QueryEntity valid = new QueryEntity();
+        valid.setContent("SELECT 1");
+        valid.setState(true);
+        QueryEntity withoutState = new QueryEntity();
+        withoutState.setContent("SELECT 2");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> userQueryService.addQueriesToUser(userId, List.of(valid, withoutState)));
+        assertTrue(user.getQueries().isEmpty());
+        verify(queryRepository, never()).saveAll(anyList());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.services;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.util.ArrayList;
@@ -12,6 +13,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import com.example.demo.entities.UserEntity;
@@ -27,9 +33,18 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private BulkDeleteService bulkDeleteService;
+
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Spy
+    private PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(1, 10);
+
+    @Spy
+    private CredentialCache credentialCache = new CredentialCache(true, 100, 60);
+
     @InjectMocks
     private UserService userService;
 
@@ -157,16 +172,14 @@ public class UserServiceTest {
     public void testDeleteUser() throws EntityNotFoundException {
         // Arrange
         Long userId = 1L;
-        UserEntity user = new UserEntity();
-        user.setId(userId);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         // Act
         userService.deleteUser(userId);
 
         // Assert
-        verify(userRepository, times(1)).delete(user);
+        verify(bulkDeleteService, times(1)).deleteUser(userId);
     }
 
     @Test
@@ -174,10 +187,25 @@ public class UserServiceTest {
         // Arrange
         Long userId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> userService.deleteUser(userId));
+        verifyNoInteractions(bulkDeleteService);
+    }
+
+    @Test
+    public void testDeleteUserAsync() throws EntityNotFoundException {
+        // Arrange
+        Long userId = 1L;
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        // Act
+        userService.deleteUserAsync(userId);
+
+        // Assert
+        verify(bulkDeleteService, times(1)).deleteUserAsync(userId);
     }
 
     @Test
@@ -200,6 +228,61 @@ public class UserServiceTest {
         assertEquals("hashed_password", authenticatedUser.getPassword());
     }
 
+    @Test
+    public void testAuthenticateUserWithHashedPassword() throws EntityNotFoundException, IllegalOperationException {
+        // Arrange
+        String email = "test@example.com";
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setPassword("{bcrypt}$2a$10$hash");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "{bcrypt}$2a$10$hash")).thenReturn(true);
+
+        // Act
+        userService.authenticateUser(email, "password");
+        userService.authenticateUser(email, "password");
+
+        // Assert: el segundo login sale de la caché sin volver a calcular el hash
+        verify(passwordEncoder, times(1)).matches("password", "{bcrypt}$2a$10$hash");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void testAuthenticateUserRehashesWeakerHash() throws EntityNotFoundException, IllegalOperationException {
+        // Arrange
+        String email = "test@example.com";
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setPassword("{bcrypt}$2a$04$hash");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "{bcrypt}$2a$04$hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("{bcrypt}$2a$04$hash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("{bcrypt}$2a$10$hash");
+
+        // Act
+        UserEntity authenticatedUser = userService.authenticateUser(email, "password");
+
+        // Assert
+        assertEquals("{bcrypt}$2a$10$hash", authenticatedUser.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    public void testAuthenticateUserWrongPasswordIsNotCached() {
+        // Arrange
+        String email = "test@example.com";
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setPassword("{bcrypt}$2a$10$hash");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrong", "{bcrypt}$2a$10$hash")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalOperationException.class, () -> userService.authenticateUser(email, "wrong"));
+        assertThrows(IllegalOperationException.class, () -> userService.authenticateUser(email, "wrong"));
+        verify(passwordEncoder, times(2)).matches("wrong", "{bcrypt}$2a$10$hash");
+    }
+
     @Test
     public void testAuthenticateUserNotFound() {
         // Arrange
@@ -224,4 +307,41 @@ public class UserServiceTest {
         // Act & Assert
         assertThrows(IllegalOperationException.class, () -> userService.authenticateUser(email, password));
     }
+
+    @Test
+    public void testGetUsersPageWithoutTotal() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        when(userRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(user), pageable, true));
+
+        // Act
+        Slice<UserEntity> page = userService.getUsersPage(pageable, false);
+
+        // Assert
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.hasNext());
+        verify(userRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    public void testGetUsersAfter() {
+        // Arrange
+        List<UserEntity> users = new ArrayList<>();
+        for (long id = 11; id <= 13; id++) {
+            UserEntity user = new UserEntity();
+            user.setId(id);
+            users.add(user);
+        }
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 3))).thenReturn(users);
+
+        // Act
+        Slice<UserEntity> page = userService.getUsersAfter(10L, 2);
+
+        // Assert
+        assertEquals(2, page.getContent().size());
+        assertEquals(12L, page.getContent().get(1).getId());
+        assertTrue(page.hasNext());
+    }
 }